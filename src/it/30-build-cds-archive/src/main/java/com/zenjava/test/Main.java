@@ -0,0 +1,16 @@
+package com.zenjava.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+public class Main {
+
+    public static void main(String[] args) {
+        // load some classes, then exit by itself for ending the training run
+        List<String> loaded = new ArrayList<>();
+        loaded.add(Logger.getLogger(Main.class.getName()).getName());
+        System.out.println("started " + loaded);
+    }
+
+}
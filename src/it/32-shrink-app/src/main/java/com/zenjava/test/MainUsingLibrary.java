@@ -0,0 +1,18 @@
+package com.zenjava.test;
+
+import javafx.stage.Stage;
+import org.apache.maven.plugin.MojoFailureException;
+
+public class MainUsingLibrary extends Main {
+
+    public static void main(String[] args) {
+        MainUsingLibrary.launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        System.out.println(MojoFailureException.class.getName());
+        super.start(primaryStage);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.zenjava.test;
+
+public class UnusedHelper {
+
+    public String getGreeting() {
+        return "never called";
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.zenjava.test;
+
+public class UsedHelper {
+
+    public String getGreeting() {
+        return "Hello";
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.zenjava.test.keep;
+
+public class LoadedByReflection {
+
+    public String getGreeting() {
+        return "only loaded by reflection";
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.zenjava.test;
+
+public class AddedLater {
+
+    public String getGreeting() {
+        return "added by the second build";
+    }
+}
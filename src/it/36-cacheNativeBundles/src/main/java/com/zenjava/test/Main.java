@@ -0,0 +1,15 @@
+package com.zenjava.test;
+
+import javafx.stage.Stage;
+
+public class Main extends javafx.application.Application {
+
+    public static void main(String[] args){
+        Main.launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        System.exit(0);
+    }
+}
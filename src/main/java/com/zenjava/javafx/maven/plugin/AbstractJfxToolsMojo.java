@@ -134,6 +134,47 @@ public abstract class AbstractJfxToolsMojo extends AbstractMojo {
      */
     protected String libFolderName;
 
+    /**
+     * Some steps are able to skip work which was already done by some previous build. All information required
+     * for detecting this is stored inside this folder. Removing this folder (e.g. by calling 'mvn clean') makes
+     * all these steps doing their full work again.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.jfxStateDir" default-value="${project.build.directory}/jfx/state"
+     */
+    protected File jfxStateDir;
+
+    /**
+     * Folder of some cache being shared by multiple workspaces or build-machines (like some network share). The
+     * JavaFX JAR and (when having cacheNativeBundles enabled) all native bundles are published there by the checksum
+     * of all their inputs, so other builds having the same inputs can restore them instead of creating them again.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.sharedCacheDir"
+     */
+    protected File sharedCacheDir;
+
+    /**
+     * Maximum size of the shared cache in megabytes, when exceeded the least recently used entries get removed. Set
+     * this to 0 for having no limit.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.sharedCacheMaxSize" default-value="10240"
+     */
+    protected long sharedCacheMaxSize = 10240;
+
+    /**
+     * Version of this plugin, being part of the keys of all cached outputs, as other versions might create them
+     * differently.
+     *
+     * @parameter default-value="${plugin.version}"
+     * @readonly
+     */
+    protected String pluginVersion;
+
     private PackagerLib packagerLib;
 
     public PackagerLib getPackagerLib() throws MojoExecutionException {
@@ -159,6 +200,16 @@ public abstract class AbstractJfxToolsMojo extends AbstractMojo {
         return this.packagerLib;
     }
 
+    /**
+     * @return the shared cache, or null when not being configured
+     */
+    protected SharedCache getSharedCache() {
+        if( sharedCacheDir == null ){
+            return null;
+        }
+        return new SharedCache(sharedCacheDir, sharedCacheMaxSize * 1024 * 1024, getLog());
+    }
+
     protected String getEnvironmentRelativeExecutablePath() {
         if( useEnvironmentRelativeExecutables ){
             return "";
@@ -170,6 +221,14 @@ public abstract class AbstractJfxToolsMojo extends AbstractMojo {
         return jdkPath;
     }
 
+    /**
+     * Copies user-provided resources, following symbolic links. Files not being readable are skipped with a warning,
+     * see {@link FileTools#copyTreeExactly(Path, Path)} for copying without skipping anything.
+     *
+     * @param sourceFolder
+     * @param targetFolder
+     * @throws IOException
+     */
     protected void copyRecursive(Path sourceFolder, Path targetFolder) throws IOException {
         Files.walkFileTree(sourceFolder, new FileVisitor<Path>() {
 
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import com.oracle.tools.packager.RelativeFileSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Index of all files inside the app-folder, created by walking that folder once. Only the relative paths, sizes and
+ * last-modified timestamps are kept (using plain arrays), so even folders having lots of files don't need much memory.
+ */
+public class AppResourceIndex {
+
+    private final File baseDirectory;
+    private final String[] relativePaths;
+    private final long[] sizes;
+    private final long[] lastModifiedTimes;
+
+    private AppResourceIndex(File baseDirectory, String[] relativePaths, long[] sizes, long[] lastModifiedTimes) {
+        this.baseDirectory = baseDirectory;
+        this.relativePaths = relativePaths;
+        this.sizes = sizes;
+        this.lastModifiedTimes = lastModifiedTimes;
+    }
+
+    /**
+     * Collects all readable files inside that folder, files which can not be read are skipped. Symbolic links to files
+     * are collected using the size and timestamp of their target.
+     *
+     * @param baseDirectory
+     * @return the index, sorted by relative path
+     * @throws IOException
+     */
+    public static AppResourceIndex scan(File baseDirectory) throws IOException {
+        Path basePath = baseDirectory.toPath();
+        List<IndexedFile> indexedFiles = new ArrayList<>();
+        if( Files.isDirectory(basePath) ){
+            Files.walkFileTree(basePath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    // staged dependencies might be symlinks, these have to be indexed by the file they are pointing to
+                    if( !Files.isRegularFile(file) || !Files.isReadable(file) ){
+                        return FileVisitResult.CONTINUE;
+                    }
+                    BasicFileAttributes fileAttributes = attrs;
+                    if( attrs.isSymbolicLink() ){
+                        fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    }
+                    indexedFiles.add(new IndexedFile(basePath.relativize(file).toString(), fileAttributes.size(), fileAttributes.lastModifiedTime().toMillis()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                    // same as not being readable
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        indexedFiles.sort((first, second) -> first.relativePath.compareTo(second.relativePath));
+
+        String[] relativePaths = new String[indexedFiles.size()];
+        long[] sizes = new long[indexedFiles.size()];
+        long[] lastModifiedTimes = new long[indexedFiles.size()];
+        for( int i = 0; i < indexedFiles.size(); i++ ){
+            IndexedFile indexedFile = indexedFiles.get(i);
+            relativePaths[i] = indexedFile.relativePath;
+            sizes[i] = indexedFile.size;
+            lastModifiedTimes[i] = indexedFile.lastModified;
+        }
+        return new AppResourceIndex(baseDirectory, relativePaths, sizes, lastModifiedTimes);
+    }
+
+    public int getFileCount() {
+        return relativePaths.length;
+    }
+
+    public long getTotalSize() {
+        return Arrays.stream(sizes).sum();
+    }
+
+    /**
+     * @param extension like ".jar"
+     * @return all files having that extension (ignoring case)
+     */
+    public List<File> getFiles(String extension) {
+        String lowerCaseExtension = extension.toLowerCase(Locale.ENGLISH);
+        List<File> files = new ArrayList<>();
+        for( String relativePath : relativePaths ){
+            if( relativePath.toLowerCase(Locale.ENGLISH).endsWith(lowerCaseExtension) ){
+                files.add(new File(baseDirectory, relativePath));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return all files as required by the bundlers
+     */
+    public RelativeFileSet toRelativeFileSet() {
+        Set<File> files = new HashSet<>(relativePaths.length * 4 / 3 + 1);
+        for( String relativePath : relativePaths ){
+            files.add(new File(baseDirectory, relativePath));
+        }
+        return new RelativeFileSet(baseDirectory, files);
+    }
+
+    private static class IndexedFile {
+
+        private final String relativePath;
+        private final long size;
+        private final long lastModified;
+
+        IndexedFile(String relativePath, long size, long lastModified) {
+            this.relativePath = relativePath;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Collects all inputs of some build step into one checksum. When the checksum of the current build equals the
+ * checksum stored by some previous build (and the created output still exists unmodified), that build step
+ * can be skipped.
+ */
+public class BuildFingerprint {
+
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    private final MessageDigest digest;
+
+    public BuildFingerprint() {
+        this.digest = createDigest();
+    }
+
+    public BuildFingerprint add(String key, Object value) {
+        digest.update((key + "=" + String.valueOf(value) + "\n").getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    public BuildFingerprint addMap(String key, Map<String, ?> values) {
+        if( values == null ){
+            return add(key, null);
+        }
+        // sorted, because the order of entries is not relevant
+        new TreeMap<>(values).forEach((entryKey, entryValue) -> add(key + "." + entryKey, entryValue));
+        return this;
+    }
+
+    /**
+     * Adds path, size and last-modified timestamp of the file. Contents are not read, which makes this being fast
+     * even for big files.
+     *
+     * @param key
+     * @param file
+     * @return this fingerprint
+     */
+    public BuildFingerprint addFile(String key, File file) {
+        if( file == null || !file.exists() ){
+            return add(key, "missing");
+        }
+        return add(key, file.getAbsolutePath() + ";" + file.length() + ";" + file.lastModified());
+    }
+
+    /**
+     * Adds relative path, size and last-modified timestamp of all files inside the given folder.
+     *
+     * @param key
+     * @param folder
+     * @return this fingerprint
+     * @throws IOException
+     */
+    public BuildFingerprint addFileTree(String key, File folder) throws IOException {
+        if( folder == null || !folder.isDirectory() ){
+            return add(key, "missing");
+        }
+        Path rootPath = folder.toPath();
+        List<Path> files;
+        try(Stream<Path> walkstream = Files.walk(rootPath)){
+            files = walkstream.filter(Files::isRegularFile).collect(Collectors.toCollection(ArrayList::new));
+        }
+        Collections.sort(files);
+        for( Path file : files ){
+            File currentFile = file.toFile();
+            add(key, rootPath.relativize(file).toString().replace("\\", "/") + ";" + currentFile.length() + ";" + currentFile.lastModified());
+        }
+        return this;
+    }
+
+    /**
+     * Adds name and checksum of the content of the file. Other than addFile, this does not depend on the location
+     * or timestamp of the file, which makes it usable for keys being shared between different workspaces.
+     *
+     * @param key
+     * @param file
+     * @param checksumIndex
+     * @return this fingerprint
+     * @throws IOException
+     */
+    public BuildFingerprint addFileContent(String key, File file, ChecksumIndex checksumIndex) throws IOException {
+        if( file == null || !file.isFile() ){
+            return add(key, "missing");
+        }
+        return add(key, file.getName() + ";" + checksumIndex.getChecksum(file));
+    }
+
+    /**
+     * Adds relative path and checksum of the content of all files inside the given folder, symbolic links to files are
+     * added by the content of their target.
+     *
+     * @param key
+     * @param folder
+     * @param checksumIndex
+     * @return this fingerprint
+     * @throws IOException
+     */
+    public BuildFingerprint addFileTreeContent(String key, File folder, ChecksumIndex checksumIndex) throws IOException {
+        if( folder == null || !folder.isDirectory() ){
+            return add(key, "missing");
+        }
+        Path rootPath = folder.toPath();
+        List<Path> files;
+        try(Stream<Path> walkstream = Files.walk(rootPath)){
+            files = walkstream.filter(path -> !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)).collect(Collectors.toCollection(ArrayList::new));
+        }
+        Collections.sort(files);
+        for( Path file : files ){
+            String relativePath = rootPath.relativize(file).toString().replace("\\", "/");
+            if( Files.isRegularFile(file) ){
+                add(key, relativePath + ";" + checksumIndex.getChecksum(file.toFile()));
+            } else if( Files.isSymbolicLink(file) ){
+                // links to folders or missing files
+                add(key, relativePath + ";link;" + Files.readSymbolicLink(file));
+            }
+        }
+        return this;
+    }
+
+    public String toHexString() {
+        return toHexString(digest.digest());
+    }
+
+    /**
+     * Reads the whole file for creating a checksum of its content.
+     *
+     * @param file
+     * @return hex-encoded checksum
+     * @throws IOException
+     */
+    public static String checksumOf(Path file) throws IOException {
+        MessageDigest fileDigest = createDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try(InputStream fileStream = Files.newInputStream(file)){
+            int read;
+            while( (read = fileStream.read(buffer)) != -1 ){
+                fileDigest.update(buffer, 0, read);
+            }
+        }
+        return toHexString(fileDigest.digest());
+    }
+
+    /**
+     * Checks if the stored state was created using the same fingerprint, and the output-file wasn't modified since.
+     *
+     * @param stateFile
+     * @param fingerprint
+     * @param outputFile
+     * @return true, when the output-file is up to date
+     */
+    public static boolean isUpToDate(File stateFile, String fingerprint, File outputFile) {
+        if( !stateFile.exists() || !outputFile.isFile() ){
+            return false;
+        }
+        try{
+            List<String> storedState = Files.readAllLines(stateFile.toPath(), StandardCharsets.UTF_8);
+            return storedState.size() == 2 && storedState.get(0).equals(fingerprint) && storedState.get(1).equals(describeOutput(outputFile));
+        } catch(IOException ex){
+            return false;
+        }
+    }
+
+    public static void storeState(File stateFile, String fingerprint, File outputFile) throws IOException {
+        Files.createDirectories(stateFile.getAbsoluteFile().getParentFile().toPath());
+        List<String> state = new ArrayList<>();
+        state.add(fingerprint);
+        state.add(describeOutput(outputFile));
+        Files.write(stateFile.toPath(), state, StandardCharsets.UTF_8);
+    }
+
+    private static String describeOutput(File outputFile) {
+        return outputFile.length() + ";" + outputFile.lastModified();
+    }
+
+    private static MessageDigest createDigest() {
+        try{
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch(NoSuchAlgorithmException ex){
+            // every JRE is required to support this algorithm
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHexString(byte[] bytes) {
+        StringBuilder hexString = new StringBuilder(bytes.length * 2);
+        for( byte b : bytes ){
+            hexString.append(String.format("%02x", b));
+        }
+        return hexString.toString();
+    }
+}
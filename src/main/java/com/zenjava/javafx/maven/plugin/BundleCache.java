@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import com.oracle.tools.packager.RelativeFileSet;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Cache of created native bundles, addressed by the checksum of everything the bundler gets: all parameters and the
+ * contents of all files and folders referenced by them (like application resources, runtime, icons or some prebuilt
+ * application image). Paths are not part of that checksum, only relative filenames and contents are.
+ * <p>
+ * The checksums of all files are indexed by path, size and last-modified timestamp, so unchanged files are not read
+ * again by following builds. The local cache is size-bounded like the shared cache, removing the least recently used
+ * bundles when exceeding its maximum size. When having some shared cache, bundles not found locally are looked up
+ * there, and all stored bundles get published there too.
+ */
+public class BundleCache {
+
+    private static final String BUNDLE_FOLDER_NAME = "bundle";
+    private static final String DESCRIPTOR_FILE_NAME = "bundle.properties";
+    private static final String RESULT_PROPERTY = "result";
+    private static final String SHARED_CACHE_NAMESPACE = "native";
+    private static final String STAGING_FOLDER_NAME = ".staging";
+
+    private final File cacheDir;
+    private final SharedCache localCache;
+    private final ChecksumIndex checksumIndex;
+    private final SharedCache sharedCache;
+    private final String pluginVersion;
+    private final Log logger;
+
+    /**
+     * @param cacheDir folder containing all cached bundles
+     * @param maxSize maximum size of all locally cached bundles in bytes, 0 for having no limit
+     * @param checksumIndex checksums of all input files
+     * @param sharedCache the shared cache, might be null
+     * @param pluginVersion part of all keys, as other versions might create other bundles
+     * @param logger
+     */
+    public BundleCache(File cacheDir, long maxSize, ChecksumIndex checksumIndex, SharedCache sharedCache, String pluginVersion, Log logger) {
+        this.cacheDir = cacheDir;
+        this.localCache = new SharedCache(cacheDir, maxSize, logger);
+        this.checksumIndex = checksumIndex;
+        this.sharedCache = sharedCache;
+        this.pluginVersion = pluginVersion;
+        this.logger = logger;
+    }
+
+    /**
+     * Creates the key of the bundle created by the given bundler using these parameters.
+     *
+     * @param bundlerID
+     * @param params all parameters passed to the bundler
+     * @param ignoredParams keys of parameters not affecting the created bundle (like temporary folders)
+     * @param additionalResources folder with additional resources of the bundlers, might be null
+     * @return the key
+     * @throws IOException
+     */
+    public String createKey(String bundlerID, Map<String, ?> params, Collection<String> ignoredParams, File additionalResources) throws IOException {
+        BuildFingerprint fingerprint = new BuildFingerprint()
+                .add("bundler", bundlerID)
+                .add("pluginVersion", pluginVersion)
+                .add("java.vendor", System.getProperty("java.vendor"))
+                .add("java.version", System.getProperty("java.version"))
+                .add("os.name", System.getProperty("os.name"))
+                .add("os.arch", System.getProperty("os.arch"));
+        for( Map.Entry<String, ?> param : new TreeMap<>(params).entrySet() ){
+            if( !ignoredParams.contains(param.getKey()) ){
+                addValue(fingerprint, param.getKey(), param.getValue());
+            }
+        }
+        if( additionalResources != null ){
+            addContent(fingerprint, "additionalResources", additionalResources);
+        }
+        return fingerprint.toHexString();
+    }
+
+    public boolean contains(String key) {
+        return localCache.contains(SHARED_CACHE_NAMESPACE, key) || (sharedCache != null && sharedCache.contains(SHARED_CACHE_NAMESPACE, key));
+    }
+
+    /**
+     * Copies the cached bundle into the output-folder, replacing existing files of the same name.
+     *
+     * @param key
+     * @param outputDir
+     * @return the restored bundle, like the bundler would have returned
+     * @throws IOException
+     */
+    public File restore(String key, File outputDir) throws IOException {
+        Path entryDir = localCache.find(SHARED_CACHE_NAMESPACE, key);
+        if( entryDir == null && sharedCache != null ){
+            entryDir = sharedCache.find(SHARED_CACHE_NAMESPACE, key);
+        }
+        if( entryDir == null ){
+            throw new IOException("Bundle was removed from cache");
+        }
+        Properties descriptor = new Properties();
+        try(InputStream descriptorStream = Files.newInputStream(entryDir.resolve(DESCRIPTOR_FILE_NAME))){
+            descriptor.load(descriptorStream);
+        }
+        Path bundleFolder = entryDir.resolve(BUNDLE_FOLDER_NAME);
+        Files.createDirectories(outputDir.toPath());
+        try(DirectoryStream<Path> bundleFiles = Files.newDirectoryStream(bundleFolder)){
+            for( Path bundleFile : bundleFiles ){
+                Path targetFile = outputDir.toPath().resolve(bundleFile.getFileName().toString());
+                FileTools.deleteRecursive(targetFile);
+                FileTools.copyTreeExactly(bundleFile, targetFile);
+            }
+        }
+        String result = descriptor.getProperty(RESULT_PROPERTY);
+        return result == null ? null : new File(outputDir, result);
+    }
+
+    /**
+     * Stores all files created by some bundler, publishing them to the shared cache too. The entry gets visible to
+     * others after being completely written. Least recently used bundles get removed afterwards, when the cache
+     * exceeds its maximum size.
+     *
+     * @param key
+     * @param bundlerOutputDir the folder the bundler was writing into, containing nothing else
+     * @param bundleResult the result returned by the bundler
+     */
+    public void store(String key, File bundlerOutputDir, File bundleResult) {
+        Path stagingDir = new File(new File(cacheDir, STAGING_FOLDER_NAME), key + "-" + UUID.randomUUID()).toPath();
+        try{
+            FileTools.copyTreeExactly(bundlerOutputDir.toPath(), stagingDir.resolve(BUNDLE_FOLDER_NAME));
+            Properties descriptor = new Properties();
+            Optional.ofNullable(relativize(bundlerOutputDir, bundleResult)).ifPresent(result -> descriptor.setProperty(RESULT_PROPERTY, result));
+            try(OutputStream descriptorStream = Files.newOutputStream(stagingDir.resolve(DESCRIPTOR_FILE_NAME))){
+                descriptor.store(descriptorStream, "cached bundle of javafx-maven-plugin, do not edit");
+            }
+            localCache.publish(SHARED_CACHE_NAMESPACE, key, stagingDir);
+            if( sharedCache != null ){
+                sharedCache.publish(SHARED_CACHE_NAMESPACE, key, stagingDir);
+            }
+        } catch(IOException ex){
+            logger.warn(String.format("Couldn't store bundle inside cache %s", cacheDir.getAbsolutePath()), ex);
+        } finally{
+            try{
+                FileTools.deleteRecursive(stagingDir);
+            } catch(IOException ex){
+                logger.debug("Couldn't remove temporary cache folder " + stagingDir, ex);
+            }
+        }
+    }
+
+    /**
+     * Moves all files created by some bundler into the output-folder, replacing existing files of the same name.
+     *
+     * @param bundlerOutputDir the folder the bundler was writing into
+     * @param outputDir
+     * @param bundleResult the result returned by the bundler
+     * @return the moved result
+     * @throws IOException
+     */
+    public static File moveOutput(File bundlerOutputDir, File outputDir, File bundleResult) throws IOException {
+        Files.createDirectories(outputDir.toPath());
+        try(DirectoryStream<Path> bundleFiles = Files.newDirectoryStream(bundlerOutputDir.toPath())){
+            for( Path bundleFile : bundleFiles ){
+                Path targetFile = outputDir.toPath().resolve(bundleFile.getFileName().toString());
+                FileTools.deleteRecursive(targetFile);
+                try{
+                    Files.move(bundleFile, targetFile);
+                } catch(IOException ex){
+                    // e.g. being on different filesystems
+                    FileTools.copyTreeExactly(bundleFile, targetFile);
+                    FileTools.deleteRecursive(bundleFile);
+                }
+            }
+        }
+        String result = relativize(bundlerOutputDir, bundleResult);
+        return result == null ? bundleResult : new File(outputDir, result);
+    }
+
+    private void addValue(BuildFingerprint fingerprint, String key, Object value) throws IOException {
+        if( value instanceof File ){
+            addContent(fingerprint, key, (File) value);
+        } else if( value instanceof RelativeFileSet ){
+            RelativeFileSet fileSet = (RelativeFileSet) value;
+            for( String includedFile : new TreeSet<>(fileSet.getIncludedFiles()) ){
+                fingerprint.add(key + "/" + includedFile.replace("\\", "/"), checksumIndex.getChecksum(new File(fileSet.getBaseDirectory(), includedFile)));
+            }
+        } else if( value instanceof Map ){
+            Map<String, Object> sortedValues = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((entryKey, entryValue) -> sortedValues.put(String.valueOf(entryKey), entryValue));
+            for( Map.Entry<String, Object> sortedValue : sortedValues.entrySet() ){
+                addValue(fingerprint, key + "." + sortedValue.getKey(), sortedValue.getValue());
+            }
+        } else if( value instanceof Collection ){
+            int index = 0;
+            for( Object collectionValue : (Collection<?>) value ){
+                addValue(fingerprint, key + "[" + index++ + "]", collectionValue);
+            }
+        } else if( value instanceof String && new File((String) value).isAbsolute() && new File((String) value).exists() ){
+            // like the path of the custom runtime
+            addContent(fingerprint, key, new File((String) value));
+        } else {
+            fingerprint.add(key, value);
+        }
+    }
+
+    private void addContent(BuildFingerprint fingerprint, String key, File file) throws IOException {
+        if( file.isDirectory() ){
+            fingerprint.addFileTreeContent(key, file, checksumIndex);
+        } else {
+            fingerprint.addFileContent(key, file, checksumIndex);
+        }
+    }
+
+    private static String relativize(File folder, File file) {
+        if( file == null ){
+            return null;
+        }
+        Path folderPath = folder.getAbsoluteFile().toPath().normalize();
+        Path filePath = file.getAbsoluteFile().toPath().normalize();
+        if( !filePath.startsWith(folderPath) || filePath.equals(folderPath) ){
+            return null;
+        }
+        return folderPath.relativize(filePath).toString().replace("\\", "/");
+    }
+}
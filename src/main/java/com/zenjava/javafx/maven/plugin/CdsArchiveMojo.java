@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Creates a class data sharing archive (CDS) for the JavaFX JAR inside the 'app' output directory. For this, the
+ * application gets started once (training run) to record all loaded classes, which are then dumped into the
+ * archive. Using that archive reduces the startup time of the JVM.
+ * <p>
+ * Only the archive gets created, native launchers are not configured to use it: the archive only works with the Java
+ * runtime used for creating it and while the classpath points to the same jar-files, which does not survive the
+ * 'app'-folder being moved by the bundlers on the versions of Java still having the JavaFX packager. To use it, pass
+ * "-XX:SharedArchiveFile" (and "-XX:+UseAppCDS" on Java 10) via your own JVM arguments.
+ * After creating the archive, it gets checked by starting the JVM using "-Xshare:on", which fails when the archive
+ * can not be used. Sharing application classes requires Java 10 or newer, the commercial feature of
+ * Oracle Java 8 and 9 is not supported.
+ *
+ * @goal build-cds-archive
+ * @phase package
+ */
+public class CdsArchiveMojo extends AbstractJfxToolsMojo {
+
+    /**
+     * The training run ends when the application exits by itself, or when this amount of seconds has passed. All
+     * classes loaded until then are part of the archive.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.cdsTrainingTimeout" default-value="30"
+     */
+    protected int cdsTrainingTimeout = 30;
+
+    /**
+     * Arguments passed to the application for the training run, e.g. to make the application exit by itself after
+     * starting up.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.cdsTrainingArguments"
+     */
+    protected List<String> cdsTrainingArguments;
+
+    /**
+     * Filename of the class data sharing archive inside the 'app' output directory.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.cdsArchiveName" default-value="app.jsa"
+     */
+    protected String cdsArchiveName;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if( skip ){
+            getLog().info("Skipping execution of CdsArchiveMojo MOJO.");
+            return;
+        }
+
+        if( JavaDetectionTools.getJavaFeatureVersion() < 10 ){
+            getLog().warn("Skipped creating class data sharing archive. Please install at least Java 10 for using this feature.");
+            return;
+        }
+
+        File jfxMainAppJarFile = new File(jfxAppOutputDir, jfxMainAppJarName);
+        if( !jfxMainAppJarFile.isFile() ){
+            throw new MojoExecutionException("Could not create class data sharing archive, because the JavaFX JAR does not exist. Please make sure to create it first.");
+        }
+
+        File cdsArchiveFile = new File(jfxAppOutputDir, cdsArchiveName);
+        File classListFile = new File(jfxStateDir, "cds.classlist");
+        File stateFile = new File(jfxStateDir, "cds.state");
+
+        String fingerprint;
+        try{
+            fingerprint = new BuildFingerprint()
+                    .add("java.home", System.getProperty("java.home"))
+                    .add("java.version", System.getProperty("java.version"))
+                    .add("jfxAppOutputDir", jfxAppOutputDir.getAbsolutePath())
+                    .add("mainClass", mainClass)
+                    .add("cdsTrainingArguments", cdsTrainingArguments)
+                    .addFile("jar", jfxMainAppJarFile)
+                    .addFileTree("lib", new File(jfxAppOutputDir, libFolderName))
+                    .toHexString();
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to check if class data sharing archive is up to date", ex);
+        }
+        if( BuildFingerprint.isUpToDate(stateFile, fingerprint, cdsArchiveFile) ){
+            getLog().info("Class data sharing archive is up to date, skipping creation.");
+            return;
+        }
+
+        try{
+            jfxStateDir.mkdirs();
+            String classpath = getClasspath(jfxMainAppJarFile);
+            runTraining(classListFile, classpath);
+            if( !classListFile.isFile() || classListFile.length() == 0 ){
+                throw new MojoExecutionException("Training run did not record any loaded classes, please check " + getLogFile().getAbsolutePath());
+            }
+            dumpArchive(classListFile, cdsArchiveFile, classpath);
+            verifyArchive(cdsArchiveFile, classpath);
+            BuildFingerprint.storeState(stateFile, fingerprint, cdsArchiveFile);
+        } catch(IOException ex){
+            throw new MojoExecutionException("There was an exception while creating class data sharing archive.", ex);
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while creating class data sharing archive.", ex);
+        }
+    }
+
+    private void runTraining(File classListFile, String classpath) throws IOException, InterruptedException {
+        getLog().info("Starting training run of JavaFX application for recording loaded classes");
+        Files.deleteIfExists(classListFile.toPath());
+
+        List<String> command = new ArrayList<>();
+        command.add(getEnvironmentRelativeExecutablePath() + "java");
+        command.addAll(getAppCdsJvmOptions());
+        command.add("-XX:DumpLoadedClassList=" + classListFile.getAbsolutePath());
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        Optional.ofNullable(cdsTrainingArguments).ifPresent(command::addAll);
+
+        Process trainingProcess = startProcess(command, false);
+        if( trainingProcess.waitFor(cdsTrainingTimeout, TimeUnit.SECONDS) ){
+            if( trainingProcess.exitValue() != 0 ){
+                getLog().warn("Training run exited with code " + trainingProcess.exitValue() + ", created archive might be incomplete.");
+            }
+            return;
+        }
+        getLog().info(String.format("Stopping training run after %s seconds", cdsTrainingTimeout));
+        // a regular shutdown makes the JVM writing all pending output
+        trainingProcess.destroy();
+        if( !trainingProcess.waitFor(10, TimeUnit.SECONDS) ){
+            trainingProcess.destroyForcibly().waitFor();
+        }
+    }
+
+    private void dumpArchive(File classListFile, File cdsArchiveFile, String classpath) throws IOException, InterruptedException, MojoExecutionException {
+        getLog().info("Creating class data sharing archive " + cdsArchiveFile.getAbsolutePath());
+        List<String> command = new ArrayList<>();
+        command.add(getEnvironmentRelativeExecutablePath() + "java");
+        command.addAll(getAppCdsJvmOptions());
+        command.add("-Xshare:dump");
+        command.add("-XX:SharedClassListFile=" + classListFile.getAbsolutePath());
+        command.add("-XX:SharedArchiveFile=" + cdsArchiveFile.getAbsolutePath());
+        command.add("-cp");
+        command.add(classpath);
+
+        Process dumpProcess = startProcess(command, true);
+        if( dumpProcess.waitFor() != 0 ){
+            throw new MojoExecutionException("Could not create class data sharing archive, please check " + getLogFile().getAbsolutePath());
+        }
+    }
+
+    /**
+     * Makes sure the JVM is able to map the created archive, otherwise the JVM would silently start without it.
+     */
+    private void verifyArchive(File cdsArchiveFile, String classpath) throws IOException, InterruptedException, MojoExecutionException {
+        List<String> command = new ArrayList<>();
+        command.add(getEnvironmentRelativeExecutablePath() + "java");
+        command.addAll(getAppCdsJvmOptions());
+        command.add("-Xshare:on");
+        command.add("-XX:SharedArchiveFile=" + cdsArchiveFile.getAbsolutePath());
+        command.add("-cp");
+        command.add(classpath);
+        command.add("-version");
+
+        Process verifyProcess = startProcess(command, true);
+        if( verifyProcess.waitFor() != 0 ){
+            throw new MojoExecutionException("Created class data sharing archive can not be used by the JVM, please check " + getLogFile().getAbsolutePath());
+        }
+    }
+
+    /**
+     * Creating the archive requires all jar-files to be on the classpath explicitly, the manifest-classpath is not
+     * followed by all versions of Java. The JVM compares the classpath by the paths of the jar-files, so these are
+     * absolute and in the same order as used when starting the JavaFX JAR (JavaFX JAR first, then the manifest-classpath).
+     */
+    private String getClasspath(File jfxMainAppJarFile) throws IOException {
+        List<String> classpathElements = new ArrayList<>();
+        classpathElements.add(jfxMainAppJarFile.getAbsolutePath());
+        Optional.ofNullable(StreamingJarWriter.readManifest(jfxMainAppJarFile))
+                .map(manifest -> manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH))
+                .ifPresent(manifestClasspath -> {
+                    Arrays.stream(manifestClasspath.trim().split("\\s+"))
+                            .filter(element -> !element.isEmpty())
+                            .map(element -> new File(jfxAppOutputDir, element).getAbsolutePath())
+                            .forEach(classpathElements::add);
+                });
+        return String.join(File.pathSeparator, classpathElements);
+    }
+
+    /**
+     * Class data sharing of application classes (AppCDS) has to be enabled on Java 10, newer versions have it
+     * enabled by default.
+     */
+    private List<String> getAppCdsJvmOptions() {
+        if( JavaDetectionTools.getJavaFeatureVersion() == 10 ){
+            return Collections.singletonList("-XX:+UseAppCDS");
+        }
+        return Collections.emptyList();
+    }
+
+    private Process startProcess(List<String> command, boolean appendToLogFile) throws IOException {
+        if( verbose ){
+            getLog().info("Running command: " + String.join(" ", command));
+        }
+        File logFile = getLogFile();
+        ProcessBuilder pb = new ProcessBuilder()
+                .directory(jfxAppOutputDir)
+                .command(command)
+                .redirectErrorStream(true)
+                .redirectOutput(appendToLogFile ? ProcessBuilder.Redirect.appendTo(logFile) : ProcessBuilder.Redirect.to(logFile));
+        return pb.start();
+    }
+
+    private File getLogFile() {
+        return new File(jfxStateDir, "cds.log");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Checksums of file contents, indexed by path, size and last-modified timestamp of each file. This makes it possible
+ * to create keys depending on contents only (instead of paths and timestamps), without reading unchanged files
+ * again on every build.
+ */
+public class ChecksumIndex {
+
+    private static final String ENTRY_SEPARATOR = ";";
+
+    private final File indexFile;
+    private final Map<String, String> checksums = new ConcurrentHashMap<>();
+
+    private ChecksumIndex(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    public static ChecksumIndex load(File indexFile, Log logger) {
+        ChecksumIndex index = new ChecksumIndex(indexFile);
+        if( !indexFile.exists() ){
+            return index;
+        }
+        Properties storedChecksums = new Properties();
+        try(InputStream indexStream = Files.newInputStream(indexFile.toPath())){
+            storedChecksums.load(indexStream);
+        } catch(IOException ex){
+            logger.warn("Couldn't read index of checksums, all files will be read again.", ex);
+            return index;
+        }
+        storedChecksums.stringPropertyNames().forEach(key -> index.checksums.put(key, storedChecksums.getProperty(key)));
+        return index;
+    }
+
+    /**
+     * @param file
+     * @return hex-encoded checksum of the content, only being calculated when the file has changed
+     * @throws IOException
+     */
+    public String getChecksum(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        String indexPrefix = file.length() + ENTRY_SEPARATOR + file.lastModified() + ENTRY_SEPARATOR;
+        String indexedValue = checksums.get(key);
+        if( indexedValue != null && indexedValue.startsWith(indexPrefix) ){
+            return indexedValue.substring(indexPrefix.length());
+        }
+        String checksum = BuildFingerprint.checksumOf(file.toPath());
+        checksums.put(key, indexPrefix + checksum);
+        return checksum;
+    }
+
+    /**
+     * Writes the index, dropping all entries of files not existing anymore.
+     *
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        checksums.keySet().removeIf(path -> !new File(path).isFile());
+        Properties storedChecksums = new Properties();
+        storedChecksums.putAll(checksums);
+        Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+        try(OutputStream indexStream = Files.newOutputStream(indexFile.toPath())){
+            storedChecksums.store(indexStream, "checksums of javafx-maven-plugin, do not edit");
+        }
+    }
+}
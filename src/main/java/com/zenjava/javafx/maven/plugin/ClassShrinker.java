@@ -0,0 +1,383 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Removes all classes from jar-files which are not reachable from some set of root classes. References between
+ * classes are read from the constant pool of every class-file, which contains all classes being used (including
+ * superclasses, interfaces, fields, method signatures and annotations).
+ * <p>
+ * As classes might be loaded by name (reflection), additional roots are collected from the jar-files:
+ * <ul>
+ * <li>classnames used as string constants inside some class</li>
+ * <li>implementations listed inside META-INF/services</li>
+ * <li>classes referenced by FXML files (controllers and all used elements)</li>
+ * <li>classnames written inside text resources (like properties-, XML- or CSS-files)</li>
+ * <li>classes listed inside the manifest (like Main-Class)</li>
+ * </ul>
+ * Only class-files are removed, all other resources are kept. Signed jar-files are never changed.
+ */
+public class ClassShrinker {
+
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String VERSIONED_ENTRIES_PREFIX = "META-INF/versions/";
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
+    private static final Pattern DESCRIPTOR_PATTERN = Pattern.compile("L([\\w$/]+)[;<]");
+    private static final Pattern CLASSNAME_PATTERN = Pattern.compile("[a-zA-Z_$][\\w$]*(?:[./][a-zA-Z_$][\\w$]*)+");
+    private static final Pattern SIGNATURE_FILE_PATTERN = Pattern.compile("META-INF/[^/]+\\.(SF|RSA|DSA|EC)", Pattern.CASE_INSENSITIVE);
+
+    private static final List<String> TEXT_RESOURCE_EXTENSIONS = Arrays.asList(".properties", ".xml", ".css", ".fxml", ".json", ".yml", ".yaml", ".conf");
+    private static final List<Attributes.Name> MANIFEST_CLASS_ATTRIBUTES = Arrays.asList(
+            Attributes.Name.MAIN_CLASS,
+            new Attributes.Name("JavaFX-Application-Class"),
+            new Attributes.Name("JavaFX-Preloader-Class"),
+            new Attributes.Name("Premain-Class"),
+            new Attributes.Name("Agent-Class"),
+            new Attributes.Name("Launcher-Agent-Class")
+    );
+
+    private final Log logger;
+
+    /**
+     * all references of every class, using internal names (like "java/lang/Object")
+     */
+    private final Map<String, Set<String>> classReferences = new HashMap<>();
+    private final Map<File, Boolean> jarFiles = new LinkedHashMap<>();
+    private final Set<String> roots = new HashSet<>();
+    private final List<WildcardPattern> keepPatterns = new ArrayList<>();
+
+    public ClassShrinker(Log logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Reads all classes and resources of the jar-file.
+     *
+     * @param jarFile
+     * @param shrinkable false, when the classes of that jar-file may not be removed
+     * @throws IOException
+     */
+    public void addJar(File jarFile, boolean shrinkable) throws IOException {
+        boolean signed = false;
+        try(ZipFile zipFile = new ZipFile(jarFile)){
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while( entries.hasMoreElements() ){
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if( entry.isDirectory() ){
+                    continue;
+                }
+                if( SIGNATURE_FILE_PATTERN.matcher(entryName).matches() ){
+                    signed = true;
+                }
+                String className = toClassName(entryName);
+                if( className != null ){
+                    classReferences.computeIfAbsent(className, name -> new HashSet<>()).addAll(readReferences(zipFile, entry));
+                } else if( entryName.startsWith(SERVICES_PREFIX) && entryName.length() > SERVICES_PREFIX.length() ){
+                    // implementations are loaded by name
+                    for( String line : readText(zipFile, entry).split("\\r?\\n") ){
+                        String implementation = line.replaceAll("#.*", "").trim();
+                        if( !implementation.isEmpty() ){
+                            addRoot(implementation);
+                        }
+                    }
+                } else if( StreamingJarWriter.MANIFEST_NAME.equalsIgnoreCase(entryName) ){
+                    try(InputStream manifestStream = zipFile.getInputStream(entry)){
+                        Attributes mainAttributes = new Manifest(manifestStream).getMainAttributes();
+                        MANIFEST_CLASS_ATTRIBUTES.stream().map(mainAttributes::getValue).filter(value -> value != null).forEach(this::addRoot);
+                    }
+                } else if( isTextResource(entryName) ){
+                    addTextResourceRoots(entryName, readText(zipFile, entry));
+                }
+            }
+        }
+        if( signed && shrinkable ){
+            logger.info(String.format("Not shrinking signed jar-file %s", jarFile.getName()));
+        }
+        jarFiles.put(jarFile, shrinkable && !signed);
+    }
+
+    /**
+     * @param className classname like "com.example.SomeClass"
+     */
+    public void addRoot(String className) {
+        roots.add(className.trim().replace('.', '/'));
+    }
+
+    /**
+     * @param keepPattern pattern for classnames like "com.example.**"
+     */
+    public void addKeepPattern(String keepPattern) {
+        keepPatterns.add(new WildcardPattern(keepPattern.trim(), '.'));
+    }
+
+    /**
+     * @return internal names of all classes being reachable from the roots
+     */
+    public Set<String> computeReachableClasses() {
+        Set<String> reachableClasses = new HashSet<>();
+        Deque<String> pendingClasses = new ArrayDeque<>();
+        roots.stream().filter(classReferences::containsKey).forEach(pendingClasses::add);
+        classReferences.keySet().stream().filter(this::isAlwaysKept).forEach(pendingClasses::add);
+        while( !pendingClasses.isEmpty() ){
+            String className = pendingClasses.poll();
+            if( !reachableClasses.add(className) ){
+                continue;
+            }
+            classReferences.get(className).stream()
+                    .filter(classReferences::containsKey)
+                    .filter(referencedClass -> !reachableClasses.contains(referencedClass))
+                    .forEach(pendingClasses::add);
+        }
+        return reachableClasses;
+    }
+
+    /**
+     * Removes all unreachable classes from every shrinkable jar-file. The jar-files are replaced (not modified), so
+     * hard links or symbolic links pointing to other files (like the local maven repository) are not affected.
+     *
+     * @param compressionLevel
+     * @return amount of removed classes
+     * @throws IOException
+     */
+    public int shrink(int compressionLevel) throws IOException {
+        Set<String> reachableClasses = computeReachableClasses();
+        logger.info(String.format("Found %s reachable classes of %s classes", reachableClasses.size(), classReferences.size()));
+        int removedClasses = 0;
+        for( Map.Entry<File, Boolean> jarFileEntry : jarFiles.entrySet() ){
+            if( jarFileEntry.getValue() ){
+                removedClasses += shrinkJar(jarFileEntry.getKey(), reachableClasses, compressionLevel);
+            }
+        }
+        return removedClasses;
+    }
+
+    private int shrinkJar(File jarFile, Set<String> reachableClasses, int compressionLevel) throws IOException {
+        long previousSize = jarFile.length();
+        try(RawJarFile sourceJar = RawJarFile.open(jarFile.toPath())){
+            List<RawJarFile.Entry> keptEntries = new ArrayList<>();
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                String className = toClassName(entry.getName());
+                if( className == null || reachableClasses.contains(className) ){
+                    keptEntries.add(entry);
+                }
+            }
+            int removedEntries = sourceJar.getEntries().size() - keptEntries.size();
+            if( removedEntries == 0 ){
+                return 0;
+            }
+            try(RawJarWriter targetJar = new RawJarWriter(jarFile.toPath(), compressionLevel)){
+                for( RawJarFile.Entry entry : keptEntries ){
+                    targetJar.copyEntry(sourceJar, entry);
+                }
+                targetJar.finish();
+            }
+            logger.info(String.format("Removed %s unreachable classes from %s (%s bytes less)", removedEntries, jarFile.getName(), previousSize - jarFile.length()));
+            return removedEntries;
+        } catch(ZipException ex){
+            logger.warn(String.format("Could not shrink %s (%s)", jarFile.getName(), ex.getMessage()));
+            return 0;
+        }
+    }
+
+    private boolean isAlwaysKept(String className) {
+        String simpleName = className.substring(className.lastIndexOf('/') + 1);
+        if( "module-info".equals(simpleName) || "package-info".equals(simpleName) ){
+            return true;
+        }
+        String dottedName = className.replace('/', '.');
+        return keepPatterns.stream().anyMatch(keepPattern -> keepPattern.matches(dottedName));
+    }
+
+    private void addTextResourceRoots(String entryName, String content) {
+        Matcher classNameMatcher = CLASSNAME_PATTERN.matcher(content);
+        while( classNameMatcher.find() ){
+            roots.add(classNameMatcher.group().replace('.', '/'));
+        }
+        if( !entryName.toLowerCase().endsWith(".fxml") ){
+            return;
+        }
+        // elements of FXML files are mostly simple classnames, which are resolved by the imported packages
+        List<String> importedPackages = new ArrayList<>();
+        Matcher importMatcher = FxmlImportOptimizer.IMPORT_PATTERN.matcher(content);
+        while( importMatcher.find() ){
+            if( importMatcher.group(2) != null ){
+                importedPackages.add(importMatcher.group(1));
+            }
+        }
+        for( String simpleClassName : FxmlImportOptimizer.findUsedClassNames(content) ){
+            importedPackages.forEach(importedPackage -> addRoot(importedPackage + "." + simpleClassName));
+        }
+    }
+
+    /**
+     * @return internal classname (like "com/example/SomeClass"), or null when not being some class-file
+     */
+    private static String toClassName(String entryName) {
+        if( !entryName.endsWith(CLASS_EXTENSION) ){
+            return null;
+        }
+        String className = entryName.substring(0, entryName.length() - CLASS_EXTENSION.length());
+        if( className.startsWith(VERSIONED_ENTRIES_PREFIX) ){
+            // multi-release jar-files: META-INF/versions/9/com/example/SomeClass.class
+            int versionEnd = className.indexOf('/', VERSIONED_ENTRIES_PREFIX.length());
+            if( versionEnd < 0 ){
+                return null;
+            }
+            className = className.substring(versionEnd + 1);
+        }
+        return className;
+    }
+
+    private static boolean isTextResource(String entryName) {
+        String lowerCaseName = entryName.toLowerCase();
+        return TEXT_RESOURCE_EXTENSIONS.stream().anyMatch(lowerCaseName::endsWith);
+    }
+
+    private static String readText(ZipFile zipFile, ZipEntry entry) throws IOException {
+        return new String(readBytes(zipFile, entry), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try(InputStream entryStream = zipFile.getInputStream(entry)){
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while( (read = entryStream.read(buffer)) != -1 ){
+                content.write(buffer, 0, read);
+            }
+            return content.toByteArray();
+        }
+    }
+
+    private static Collection<String> readReferences(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try{
+            return readConstantPoolReferences(readBytes(zipFile, entry));
+        } catch(IOException | RuntimeException ex){
+            throw new IOException("Could not read class-file " + entry.getName() + " inside " + zipFile.getName(), ex);
+        }
+    }
+
+    /**
+     * Collects all classnames of the constant pool: class entries, all types used inside descriptors and signatures,
+     * and all strings looking like some classname.
+     */
+    static Set<String> readConstantPoolReferences(byte[] classBytes) throws IOException {
+        DataInputStream classStream = new DataInputStream(new ByteArrayInputStream(classBytes));
+        if( classStream.readInt() != 0xCAFEBABE ){
+            throw new IOException("Invalid class-file");
+        }
+        // minor and major version
+        classStream.readUnsignedShort();
+        classStream.readUnsignedShort();
+        int constantPoolCount = classStream.readUnsignedShort();
+        String[] utf8Entries = new String[constantPoolCount];
+        List<Integer> classIndexes = new ArrayList<>();
+        List<Integer> stringIndexes = new ArrayList<>();
+        for( int i = 1; i < constantPoolCount; i++ ){
+            int tag = classStream.readUnsignedByte();
+            switch(tag) {
+                case 1: // Utf8
+                    utf8Entries[i] = classStream.readUTF();
+                    break;
+                case 7: // Class
+                    classIndexes.add(classStream.readUnsignedShort());
+                    break;
+                case 8: // String
+                    stringIndexes.add(classStream.readUnsignedShort());
+                    break;
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    classStream.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    classStream.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    classStream.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    classStream.skipBytes(8);
+                    // these are using two slots
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        Set<String> references = new HashSet<>();
+        for( int classIndex : classIndexes ){
+            String className = utf8Entries[classIndex];
+            if( className != null && !className.startsWith("[") ){
+                references.add(className);
+            }
+        }
+        for( String utf8Entry : utf8Entries ){
+            if( utf8Entry != null && utf8Entry.indexOf('L') >= 0 ){
+                Matcher descriptorMatcher = DESCRIPTOR_PATTERN.matcher(utf8Entry);
+                while( descriptorMatcher.find() ){
+                    references.add(descriptorMatcher.group(1));
+                }
+            }
+        }
+        for( int stringIndex : stringIndexes ){
+            String stringConstant = utf8Entries[stringIndex];
+            if( stringConstant != null && CLASSNAME_PATTERN.matcher(stringConstant).matches() ){
+                references.add(stringConstant.replace('.', '/'));
+            }
+        }
+        return references;
+    }
+}
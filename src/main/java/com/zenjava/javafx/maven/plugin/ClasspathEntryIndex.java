@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Index of all classes contained inside a set of jar-files, answering lookups for some classname without opening any
+ * jar-file again. Only the central directory of each jar-file is read, the resulting list of classes is cached inside
+ * the cache-folder by the checksum of that jar-file. The checksum itself is only calculated again when size or
+ * last-modified timestamp of the jar-file differs from the indexed values (see {@link ChecksumIndex}).
+ * <p>
+ * Cached lists of jar-files not being added since loading get removed when saving.
+ */
+public class ClasspathEntryIndex {
+
+    private static final String INDEX_FILE_NAME = "jars.index";
+    private static final String CLASS_LIST_EXTENSION = ".classes";
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String VERSIONED_ENTRY_PREFIX = "META-INF/versions/";
+
+    private final File cacheDir;
+    private final ChecksumIndex checksumIndex;
+    private final Log logger;
+    private final Set<String> indexedChecksums = new HashSet<>();
+    private final Map<String, File> classLocations = new HashMap<>();
+
+    private ClasspathEntryIndex(File cacheDir, ChecksumIndex checksumIndex, Log logger) {
+        this.cacheDir = cacheDir;
+        this.checksumIndex = checksumIndex;
+        this.logger = logger;
+    }
+
+    public static ClasspathEntryIndex load(File cacheDir, Log logger) {
+        return new ClasspathEntryIndex(cacheDir, ChecksumIndex.load(new File(cacheDir, INDEX_FILE_NAME), logger), logger);
+    }
+
+    /**
+     * Adds all classes of these jar-files to the index. When some class is contained inside multiple jar-files, the
+     * first one wins (like the classloader does). Jar-files not being readable are skipped.
+     *
+     * @param jarFiles
+     */
+    public void addJars(Collection<File> jarFiles) {
+        for( File jarFile : jarFiles ){
+            try{
+                for( String className : getClassNames(jarFile) ){
+                    classLocations.putIfAbsent(className, jarFile);
+                }
+            } catch(IOException ex){
+                logger.debug(String.format("Couldn't index jar-file %s", jarFile.getAbsolutePath()), ex);
+            }
+        }
+    }
+
+    /**
+     * @param className fully qualified name of the class, nested classes using '$'
+     * @return true, when some indexed jar-file contains that class
+     */
+    public boolean containsClass(String className) {
+        return classLocations.containsKey(className);
+    }
+
+    /**
+     * @param className fully qualified name of the class, nested classes using '$'
+     * @return the first jar-file containing that class, or null
+     */
+    public File findJar(String className) {
+        return classLocations.get(className);
+    }
+
+    public int getClassCount() {
+        return classLocations.size();
+    }
+
+    /**
+     * Stores the index of all jar-files added since loading, removing all cached class-lists not being referenced
+     * anymore.
+     *
+     * @throws IOException
+     */
+    public void save() throws IOException {
+        checksumIndex.save();
+
+        Set<String> referencedClassLists = new HashSet<>();
+        indexedChecksums.forEach(checksum -> referencedClassLists.add(checksum + CLASS_LIST_EXTENSION));
+        try(DirectoryStream<Path> classLists = Files.newDirectoryStream(cacheDir.toPath(), "*" + CLASS_LIST_EXTENSION)){
+            for( Path classList : classLists ){
+                if( !referencedClassLists.contains(classList.getFileName().toString()) ){
+                    Files.deleteIfExists(classList);
+                }
+            }
+        }
+    }
+
+    private List<String> getClassNames(File jarFile) throws IOException {
+        // touched, but maybe not changed (e.g. re-downloaded or copied again), so the class-list is cached by content
+        String checksum = checksumIndex.getChecksum(jarFile);
+        indexedChecksums.add(checksum);
+
+        Path classList = new File(cacheDir, checksum + CLASS_LIST_EXTENSION).toPath();
+        if( Files.isRegularFile(classList) ){
+            return Files.readAllLines(classList, StandardCharsets.UTF_8);
+        }
+
+        List<String> classNames = readClassNames(jarFile);
+        Files.createDirectories(cacheDir.toPath());
+        Files.write(classList, classNames, StandardCharsets.UTF_8);
+        return classNames;
+    }
+
+    private static List<String> readClassNames(File jarFile) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        for( String entryName : readFileEntryNames(jarFile) ){
+            if( !entryName.endsWith(CLASS_EXTENSION) ){
+                continue;
+            }
+            if( entryName.startsWith(VERSIONED_ENTRY_PREFIX) ){
+                // multi-release jar-files, like "META-INF/versions/9/com/example/Some.class"
+                int versionEnd = entryName.indexOf('/', VERSIONED_ENTRY_PREFIX.length());
+                if( versionEnd < 0 ){
+                    continue;
+                }
+                entryName = entryName.substring(versionEnd + 1);
+            }
+            String className = entryName.substring(0, entryName.length() - CLASS_EXTENSION.length()).replace('/', '.');
+            if( !className.isEmpty() && !className.startsWith("META-INF.") && !className.endsWith("module-info") ){
+                classNames.add(className);
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * @return names of all entries not being directories
+     */
+    private static List<String> readFileEntryNames(File jarFile) throws IOException {
+        List<String> entryNames = new ArrayList<>();
+        try(RawJarFile rawJarFile = RawJarFile.open(jarFile.toPath())){
+            for( RawJarFile.Entry jarEntry : rawJarFile.getEntries() ){
+                if( !jarEntry.isDirectory() ){
+                    entryNames.add(jarEntry.getName());
+                }
+            }
+            return entryNames;
+        } catch(ZipException ex){
+            // like ZIP64-files, which are not supported by RawJarFile
+        }
+        entryNames.clear();
+        try(ZipFile zipFile = new ZipFile(jarFile)){
+            zipFile.stream().filter(zipEntry -> !zipEntry.isDirectory()).map(ZipEntry::getName).forEach(entryNames::add);
+        }
+        return entryNames;
+    }
+}
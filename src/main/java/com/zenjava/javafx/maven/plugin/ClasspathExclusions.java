@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Dependency;
+
+/**
+ * Checks artifacts against the configured classpath excludes. All excludes are prepared once: excludes having plain
+ * coordinates are looked up by "groupId:artifactId", only excludes using wildcards (<code>*</code> and
+ * <code>?</code>) or version ranges (like <code>[1.0,2.0)</code>) are checked one by one. Results for elements of
+ * the dependency trail are cached, as most artifacts are sharing the same parents.
+ * <p>
+ * Plain versions are ignored, only version ranges restrict an exclude to some versions.
+ */
+public class ClasspathExclusions {
+
+    private final boolean transitive;
+    private final Map<String, Rule> exactRules = new HashMap<>();
+    private final List<Rule> patternRules = new ArrayList<>();
+    private final Map<String, Rule> trailCache = new HashMap<>();
+    private final Rule noMatch = new Rule("", "", null, "");
+
+    /**
+     * @param classpathExcludes
+     * @param transitive true, when all artifacts depending on some excluded artifact are excluded too
+     * @throws InvalidVersionSpecificationException when some version range is invalid
+     */
+    public ClasspathExclusions(List<Dependency> classpathExcludes, boolean transitive) throws InvalidVersionSpecificationException {
+        this.transitive = transitive;
+        for( Dependency classpathExclude : classpathExcludes ){
+            String groupId = String.valueOf(classpathExclude.getGroupId()).trim();
+            String artifactId = String.valueOf(classpathExclude.getArtifactId()).trim();
+            String version = classpathExclude.getVersion() == null ? "" : classpathExclude.getVersion().trim();
+            VersionRange versionRange = null;
+            if( version.startsWith("[") || version.startsWith("(") ){
+                versionRange = VersionRange.createFromVersionSpec(version);
+            } else {
+                version = "";
+            }
+            String description = groupId + ":" + artifactId + (version.isEmpty() ? "" : ":" + version);
+            Rule rule = new Rule(groupId, artifactId, versionRange, description);
+            if( isPattern(groupId) || isPattern(artifactId) || versionRange != null ){
+                patternRules.add(rule);
+            } else {
+                exactRules.putIfAbsent(groupId + ":" + artifactId, rule);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return exactRules.isEmpty() && patternRules.isEmpty();
+    }
+
+    /**
+     * @param artifact
+     * @return description of the matching exclude (like "groupId:artifactId"), or null when not excluded
+     */
+    public String findMatchingExclude(Artifact artifact) {
+        if( isEmpty() ){
+            return null;
+        }
+        if( !transitive ){
+            Rule rule = findRule(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+            return rule == null ? null : rule.description;
+        }
+        List<String> dependencyTrail = artifact.getDependencyTrail();
+        if( dependencyTrail == null ){
+            return null;
+        }
+        // the first element is the project itself, which would be matched by excludes like "com.example.**"
+        for( String trailElement : dependencyTrail.subList(Math.min(1, dependencyTrail.size()), dependencyTrail.size()) ){
+            Rule rule = trailCache.computeIfAbsent(trailElement, this::findRuleForTrailElement);
+            if( rule != noMatch ){
+                return rule.description;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Elements of the dependency trail are formatted like "groupId:artifactId:type[:classifier]:version".
+     */
+    private Rule findRuleForTrailElement(String trailElement) {
+        String[] coordinates = trailElement.split(":");
+        if( coordinates.length < 2 ){
+            return noMatch;
+        }
+        String version = coordinates.length > 3 ? coordinates[coordinates.length - 1] : null;
+        Rule rule = findRule(coordinates[0], coordinates[1], version);
+        return rule == null ? noMatch : rule;
+    }
+
+    private Rule findRule(String groupId, String artifactId, String version) {
+        Rule exactRule = exactRules.get(groupId + ":" + artifactId);
+        if( exactRule != null ){
+            return exactRule;
+        }
+        for( Rule rule : patternRules ){
+            if( rule.matches(groupId, artifactId, version) ){
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPattern(String value) {
+        return value.indexOf('*') >= 0 || value.indexOf('?') >= 0;
+    }
+
+    private static class Rule {
+
+        private final WildcardPattern groupIdPattern;
+        private final WildcardPattern artifactIdPattern;
+        private final VersionRange versionRange;
+        private final String description;
+
+        Rule(String groupId, String artifactId, VersionRange versionRange, String description) {
+            this.groupIdPattern = new WildcardPattern(groupId, '.');
+            this.artifactIdPattern = new WildcardPattern(artifactId, '.');
+            this.versionRange = versionRange;
+            this.description = description;
+        }
+
+        /**
+         * Only used for rules having wildcards or version ranges, all others are looked up by their coordinates.
+         */
+        boolean matches(String groupId, String artifactId, String version) {
+            if( !groupIdPattern.matches(groupId) || !artifactIdPattern.matches(artifactId) ){
+                return false;
+            }
+            return versionRange == null || (version != null && versionRange.containsVersion(new DefaultArtifactVersion(version)));
+        }
+    }
+}
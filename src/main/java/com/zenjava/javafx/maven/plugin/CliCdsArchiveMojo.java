@@ -0,0 +1,27 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+/**
+ * Creates a class data sharing archive for the JavaFX JAR, which gets used by the native launchers for reducing the
+ * startup time of the JVM. The JavaFX JAR is built first.
+ *
+ * @goal cds-archive
+ * @execute goal="jar"
+ */
+public class CliCdsArchiveMojo extends CdsArchiveMojo {
+    // NO-OP
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Converts CSS files into the binary format of JavaFX (bss), like the JavaFX packager does when setting css2bin,
+ * but only for stylesheets which have changed since the previous build. The checksum of every converted stylesheet
+ * is stored inside some index-file.
+ * <p>
+ * The CSS parser of JavaFX is a singleton and not safe to be used by multiple threads, so every worker thread gets
+ * its own copy of the JavaFX classes via some isolated classloader. When this isn't possible, all conversions are
+ * done one after another.
+ */
+public class CssCompiler {
+
+    private static final String CSS2BIN_CLASS = "com.sun.javafx.css.parser.Css2Bin";
+    private static final String CSS2BIN_METHOD = "convert";
+    private static final String CSS_EXTENSION = ".css";
+    private static final String BSS_EXTENSION = ".bss";
+
+    private static final Object SHARED_CONVERTER_LOCK = new Object();
+
+    private final File indexFile;
+    private final Log logger;
+    private final int threads;
+
+    private final List<URLClassLoader> isolatedClassLoaders = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Converter> converters = new ThreadLocal<>();
+
+    public CssCompiler(File indexFile, Log logger, int threads) {
+        this.indexFile = indexFile;
+        this.logger = logger;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * The converter of JavaFX is only accessible on Java 8, newer versions do not export that package.
+     *
+     * @return true, when the CSS converter of JavaFX can be used
+     */
+    public static boolean isAvailable() {
+        if( !JavaDetectionTools.IS_JAVA_8 ){
+            return false;
+        }
+        try{
+            Class.forName(CSS2BIN_CLASS).getMethod(CSS2BIN_METHOD, String.class, String.class);
+            return true;
+        } catch(ClassNotFoundException | NoSuchMethodException | LinkageError ex){
+            return false;
+        }
+    }
+
+    /**
+     * Converts all CSS files of the source-folder into the output-folder, keeping the same relative paths. Binary
+     * files inside the output-folder without corresponding CSS file get removed.
+     *
+     * @param sourceFolder
+     * @param outputFolder
+     * @return amount of converted files
+     * @throws IOException when some file could not be converted
+     */
+    public int compile(File sourceFolder, File outputFolder) throws IOException {
+        Path sourcePath = sourceFolder.toPath();
+        Path outputPath = outputFolder.toPath();
+        List<Path> cssFiles = new ArrayList<>();
+        if( sourceFolder.isDirectory() ){
+            try(Stream<Path> walkstream = Files.walk(sourcePath)){
+                cssFiles = walkstream.filter(path -> path.getFileName().toString().toLowerCase().endsWith(CSS_EXTENSION)).filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+
+        Properties knownChecksums = loadIndex();
+        Map<String, String> currentChecksums = new ConcurrentHashMap<>();
+        Set<String> convertedFiles = ConcurrentHashMap.newKeySet();
+        List<String> failedFiles = Collections.synchronizedList(new ArrayList<>());
+
+        List<Runnable> conversionTasks = cssFiles.stream().map(cssFile -> (Runnable) () -> {
+            String relativePath = sourcePath.relativize(cssFile).toString().replace("\\", "/");
+            Path bssFile = outputPath.resolve(toBinaryName(relativePath));
+            try{
+                String checksum = BuildFingerprint.checksumOf(cssFile);
+                if( checksum.equals(knownChecksums.getProperty(relativePath)) && Files.isRegularFile(bssFile) ){
+                    logger.debug(String.format("Binary CSS is up to date: %s", relativePath));
+                    currentChecksums.put(relativePath, checksum);
+                    return;
+                }
+                Files.createDirectories(bssFile.getParent());
+                long startTime = System.currentTimeMillis();
+                convert(cssFile, bssFile);
+                logger.info(String.format("Converted %s to binary CSS in %s ms", relativePath, System.currentTimeMillis() - startTime));
+                currentChecksums.put(relativePath, checksum);
+                convertedFiles.add(relativePath);
+            } catch(IOException ex){
+                logger.warn(String.format("Couldn't convert %s to binary CSS", cssFile.toAbsolutePath()));
+                logger.debug(ex);
+                failedFiles.add(relativePath);
+            }
+        }).collect(Collectors.toList());
+
+        try{
+            runTasks(conversionTasks);
+        } finally{
+            closeIsolatedClassLoaders();
+        }
+
+        removeStaleFiles(outputPath, currentChecksums.keySet().stream().map(CssCompiler::toBinaryName).collect(Collectors.toSet()));
+        saveIndex(currentChecksums);
+
+        if( !failedFiles.isEmpty() ){
+            throw new IOException("Could not convert CSS files to binary format: " + failedFiles);
+        }
+        return convertedFiles.size();
+    }
+
+    private void runTasks(List<Runnable> tasks) throws IOException {
+        int usedThreads = Math.min(threads, tasks.size());
+        if( usedThreads <= 1 ){
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        logger.debug(String.format("Converting %s CSS files using %s threads", tasks.size(), usedThreads));
+        ExecutorService conversionExecutor = Executors.newFixedThreadPool(usedThreads);
+        try{
+            List<Future<?>> conversionResults = tasks.stream().map(conversionExecutor::submit).collect(Collectors.toList());
+            for( Future<?> conversionResult : conversionResults ){
+                conversionResult.get();
+            }
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting CSS files", ex);
+        } catch(ExecutionException ex){
+            throw new IOException("Error converting CSS files", ex.getCause());
+        } finally{
+            conversionExecutor.shutdownNow();
+        }
+    }
+
+    private void convert(Path cssFile, Path bssFile) throws IOException {
+        Converter converter = converters.get();
+        if( converter == null ){
+            converter = createConverter();
+            converters.set(converter);
+        }
+        try{
+            if( converter.isolated ){
+                converter.method.invoke(null, cssFile.toAbsolutePath().toString(), bssFile.toAbsolutePath().toString());
+            } else {
+                synchronized(SHARED_CONVERTER_LOCK){
+                    converter.method.invoke(null, cssFile.toAbsolutePath().toString(), bssFile.toAbsolutePath().toString());
+                }
+            }
+        } catch(InvocationTargetException ex){
+            throw new IOException(ex.getCause());
+        } catch(IllegalAccessException ex){
+            throw new IOException(ex);
+        }
+    }
+
+    private Converter createConverter() throws IOException {
+        Class<?> sharedConverterClass;
+        try{
+            sharedConverterClass = Class.forName(CSS2BIN_CLASS);
+        } catch(ClassNotFoundException ex){
+            throw new IOException("JavaFX CSS converter not found", ex);
+        }
+        if( threads > 1 ){
+            // having a separated copy of the JavaFX classes makes it possible to convert in parallel
+            CodeSource codeSource = sharedConverterClass.getProtectionDomain().getCodeSource();
+            if( codeSource != null && codeSource.getLocation() != null ){
+                URLClassLoader isolatedClassLoader = new URLClassLoader(new URL[]{codeSource.getLocation()}, null);
+                try{
+                    Method isolatedMethod = isolatedClassLoader.loadClass(CSS2BIN_CLASS).getMethod(CSS2BIN_METHOD, String.class, String.class);
+                    isolatedClassLoaders.add(isolatedClassLoader);
+                    return new Converter(isolatedMethod, true);
+                } catch(ClassNotFoundException | NoSuchMethodException | LinkageError ex){
+                    logger.debug("Couldn't isolate JavaFX CSS converter, converting one file at a time.");
+                    isolatedClassLoader.close();
+                }
+            }
+        }
+        try{
+            return new Converter(sharedConverterClass.getMethod(CSS2BIN_METHOD, String.class, String.class), false);
+        } catch(NoSuchMethodException ex){
+            throw new IOException("JavaFX CSS converter not found", ex);
+        }
+    }
+
+    private void closeIsolatedClassLoaders() {
+        isolatedClassLoaders.forEach(isolatedClassLoader -> {
+            try{
+                isolatedClassLoader.close();
+            } catch(IOException ex){
+                logger.debug(ex);
+            }
+        });
+        isolatedClassLoaders.clear();
+    }
+
+    private void removeStaleFiles(Path outputPath, Set<String> expectedFiles) throws IOException {
+        if( !Files.isDirectory(outputPath) ){
+            return;
+        }
+        List<Path> staleFiles;
+        try(Stream<Path> walkstream = Files.walk(outputPath)){
+            staleFiles = walkstream.filter(Files::isRegularFile).filter(path -> !expectedFiles.contains(outputPath.relativize(path).toString().replace("\\", "/"))).collect(Collectors.toList());
+        }
+        for( Path staleFile : staleFiles ){
+            logger.debug(String.format("Removing stale binary CSS file %s", staleFile.toAbsolutePath()));
+            Files.deleteIfExists(staleFile);
+        }
+    }
+
+    private Properties loadIndex() {
+        Properties index = new Properties();
+        if( indexFile.exists() ){
+            try(InputStream indexStream = Files.newInputStream(indexFile.toPath())){
+                index.load(indexStream);
+            } catch(IOException ex){
+                logger.warn("Couldn't read index of converted CSS files, all files will be converted again.", ex);
+                index.clear();
+            }
+        }
+        return index;
+    }
+
+    private void saveIndex(Map<String, String> checksums) throws IOException {
+        Properties index = new Properties();
+        index.putAll(checksums);
+        Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+        try(OutputStream indexStream = Files.newOutputStream(indexFile.toPath())){
+            index.store(indexStream, "CSS index of javafx-maven-plugin, do not edit");
+        }
+    }
+
+    private static String toBinaryName(String cssName) {
+        return cssName.substring(0, cssName.length() - CSS_EXTENSION.length()) + BSS_EXTENSION;
+    }
+
+    private static class Converter {
+
+        private final Method method;
+        private final boolean isolated;
+
+        Converter(Method method, boolean isolated) {
+            this.method = method;
+            this.isolated = isolated;
+        }
+    }
+}
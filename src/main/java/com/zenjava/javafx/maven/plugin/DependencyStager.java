@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Places files (like dependencies from the local maven repository) into the lib-folder. Instead of copying all
+ * bytes, it is possible to create hard links, symbolic links or reflinks (copy-on-write clones). When the requested
+ * way isn't possible (e.g. hard links across different filesystems), the file gets copied instead.
+ */
+public class DependencyStager {
+
+    public static final String MODE_COPY = "copy";
+    public static final String MODE_HARDLINK = "hardlink";
+    public static final String MODE_SYMLINK = "symlink";
+    public static final String MODE_REFLINK = "reflink";
+
+    public static final List<String> SUPPORTED_MODES = Arrays.asList(MODE_COPY, MODE_HARDLINK, MODE_SYMLINK, MODE_REFLINK);
+
+    private final String mode;
+    private final Log logger;
+    private final AtomicBoolean informedAboutFallback = new AtomicBoolean(false);
+
+    public DependencyStager(String mode, Log logger) {
+        this.mode = mode == null ? MODE_COPY : mode.toLowerCase();
+        this.logger = logger;
+    }
+
+    public static boolean isSupportedMode(String mode) {
+        return mode == null || SUPPORTED_MODES.contains(mode.toLowerCase());
+    }
+
+    /**
+     * Places the source-file at the target-location, replacing any existing file there.
+     *
+     * @param source
+     * @param target
+     * @throws IOException
+     */
+    public void stage(Path source, Path target) throws IOException {
+        switch(mode) {
+            case MODE_HARDLINK:
+                Files.deleteIfExists(target);
+                try{
+                    Files.createLink(target, source);
+                    return;
+                } catch(IOException | UnsupportedOperationException ex){
+                    informAboutFallback(source, ex);
+                }
+                break;
+            case MODE_SYMLINK:
+                Files.deleteIfExists(target);
+                try{
+                    Files.createSymbolicLink(target, source.toAbsolutePath());
+                    return;
+                } catch(IOException | UnsupportedOperationException ex){
+                    informAboutFallback(source, ex);
+                }
+                break;
+            case MODE_REFLINK:
+                Files.deleteIfExists(target);
+                if( createReflink(source, target) ){
+                    return;
+                }
+                break;
+            default:
+                // just copy
+                break;
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private boolean createReflink(Path source, Path target) {
+        // there is no java-API for this, so we are calling "cp" with the flags of the corresponding platform
+        String osName = System.getProperty("os.name").toLowerCase();
+        List<String> command = new ArrayList<>();
+        command.add("cp");
+        if( osName.startsWith("linux") ){
+            command.add("--reflink=always");
+        } else if( osName.contains("os x") ){
+            command.add("-c");
+        } else {
+            informAboutFallback(source, null);
+            return false;
+        }
+        command.add(source.toAbsolutePath().toString());
+        command.add(target.toAbsolutePath().toString());
+        try{
+            Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+            // drain output, otherwise the process might block
+            while( p.getInputStream().read() != -1 ){
+                // NO-OP
+            }
+            if( p.waitFor() == 0 ){
+                return true;
+            }
+            Files.deleteIfExists(target);
+        } catch(IOException ex){
+            informAboutFallback(source, ex);
+            return false;
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+        informAboutFallback(source, null);
+        return false;
+    }
+
+    private void informAboutFallback(Path source, Exception reason) {
+        if( informedAboutFallback.compareAndSet(false, true) ){
+            logger.info(String.format("Dependency staging mode '%s' is not possible for all files (e.g. when being on different filesystems), copying them instead.", mode));
+        }
+        logger.debug(String.format("Copying %s instead of using dependency staging mode '%s'", source.toAbsolutePath(), mode));
+        if( reason != null ){
+            logger.debug(reason);
+        }
+    }
+}
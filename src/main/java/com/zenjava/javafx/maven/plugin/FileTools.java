@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File operations shared by the caches and builders of this plugin.
+ */
+public class FileTools {
+
+    private FileTools() {
+    }
+
+    /**
+     * Copies the whole folder (or single file), keeping permissions (like executable launchers), timestamps and
+     * symbolic links. Existing files inside the target are replaced, any file not being copyable fails the whole copy.
+     * Unlike {@link AbstractJfxToolsMojo#copyRecursive(Path, Path)} (used for user-provided resources), no failure is
+     * skipped and no symbolic link gets resolved, as this is meant for restoring created bundles exactly.
+     *
+     * @param source
+     * @param target
+     * @return amount of copied bytes
+     * @throws IOException
+     */
+    public static long copyTreeExactly(Path source, Path target) throws IOException {
+        AtomicLong copiedBytes = new AtomicLong();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                copiedBytes.addAndGet(attrs.size());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return copiedBytes.get();
+    }
+
+    /**
+     * Deletes the whole folder (or single file), symbolic links are removed without touching their targets. Does
+     * nothing when the path does not exist.
+     *
+     * @param path
+     * @throws IOException
+     */
+    public static void deleteRecursive(Path path) throws IOException {
+        if( !Files.exists(path, LinkOption.NOFOLLOW_LINKS) ){
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if( exc != null ){
+                    throw exc;
+                }
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
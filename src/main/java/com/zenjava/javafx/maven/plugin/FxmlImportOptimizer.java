@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Replaces wildcard imports inside FXML files (like <code>&lt;?import javafx.scene.control.*?&gt;</code>) by
+ * explicit imports of the classes being used. For every class not imported explicitly, the FXMLLoader tries to load
+ * that class from every imported package, each failing try being a search through the whole classpath. Having
+ * explicit imports makes every class being found on the first try.
+ * <p>
+ * Classes are resolved the same way the FXMLLoader does: explicit imports first, then java.lang, then all wildcard
+ * imports in their order. When some class can not be resolved at build-time, the file is left untouched.
+ */
+public class FxmlImportOptimizer implements AutoCloseable {
+
+    private static final String FXML_EXTENSION = ".fxml";
+    private static final String DEFAULT_PACKAGE = "java.lang";
+
+    static final Pattern IMPORT_PATTERN = Pattern.compile("<\\?import\\s+([\\w.$]+?)(\\.\\*)?\\s*\\?>");
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("<!--.*?-->|<!\\[CDATA\\[.*?]]>", Pattern.DOTALL);
+    private static final Pattern TAG_PATTERN = Pattern.compile("<([^!?/][^>]*)>");
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile("([\\w:.]+)\\s*=\\s*(\"[^\"]*\"|'[^']*')");
+
+    private final URLClassLoader classpathLoader;
+    private final Log logger;
+
+    /**
+     * @param classpath all folders and jar-files the FXML files are referencing classes of
+     * @param logger
+     * @throws IOException
+     */
+    public FxmlImportOptimizer(List<File> classpath, Log logger) throws IOException {
+        List<URL> classpathUrls = new ArrayList<>();
+        for( File classpathElement : classpath ){
+            classpathUrls.add(classpathElement.toURI().toURL());
+        }
+        // JavaFX itself is part of the JRE
+        this.classpathLoader = new URLClassLoader(classpathUrls.toArray(new URL[classpathUrls.size()]), ClassLoader.getSystemClassLoader());
+        this.logger = logger;
+    }
+
+    /**
+     * Writes rewritten copies of all FXML files inside the source-folder into the target-folder (using the same
+     * relative paths), the source-folder stays untouched. Files not requiring any change are not copied, and files of
+     * previous runs not being rewritten anymore are removed. Unchanged copies are not written again, keeping their
+     * timestamps.
+     *
+     * @param sourceFolder
+     * @param targetFolder
+     * @return amount of rewritten files
+     * @throws IOException
+     */
+    public int optimize(File sourceFolder, File targetFolder) throws IOException {
+        Path sourcePath = sourceFolder.toPath();
+        Path targetPath = targetFolder.toPath();
+        Set<Path> rewrittenFiles = new HashSet<>();
+        if( sourceFolder.isDirectory() ){
+            List<Path> fxmlFiles;
+            try(Stream<Path> walkstream = Files.walk(sourcePath)){
+                fxmlFiles = walkstream.filter(path -> path.getFileName().toString().toLowerCase().endsWith(FXML_EXTENSION)).filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            for( Path fxmlFile : fxmlFiles ){
+                String rewrittenContent = optimizeFile(fxmlFile);
+                if( rewrittenContent == null ){
+                    continue;
+                }
+                Path rewrittenFile = targetPath.resolve(sourcePath.relativize(fxmlFile).toString());
+                byte[] rewrittenBytes = rewrittenContent.getBytes(StandardCharsets.UTF_8);
+                if( !Files.isRegularFile(rewrittenFile) || !Arrays.equals(rewrittenBytes, Files.readAllBytes(rewrittenFile)) ){
+                    Files.createDirectories(rewrittenFile.getParent());
+                    Files.write(rewrittenFile, rewrittenBytes);
+                }
+                rewrittenFiles.add(rewrittenFile);
+            }
+        }
+        if( Files.isDirectory(targetPath) ){
+            List<Path> staleFiles;
+            try(Stream<Path> walkstream = Files.walk(targetPath)){
+                staleFiles = walkstream.filter(Files::isRegularFile).filter(path -> !rewrittenFiles.contains(path)).collect(Collectors.toList());
+            }
+            for( Path staleFile : staleFiles ){
+                Files.delete(staleFile);
+            }
+        }
+        return rewrittenFiles.size();
+    }
+
+    /**
+     * @return the rewritten content, or null when the file does not need to be changed
+     */
+    private String optimizeFile(Path fxmlFile) throws IOException {
+        String content = new String(Files.readAllBytes(fxmlFile), StandardCharsets.UTF_8);
+
+        List<String> wildcardPackages = new ArrayList<>();
+        Set<String> explicitImports = new HashSet<>();
+        Matcher importMatcher = IMPORT_PATTERN.matcher(content);
+        while( importMatcher.find() ){
+            if( importMatcher.group(2) != null ){
+                wildcardPackages.add(importMatcher.group(1));
+            } else {
+                String importedClass = importMatcher.group(1);
+                explicitImports.add(importedClass.substring(importedClass.lastIndexOf('.') + 1));
+            }
+        }
+        if( wildcardPackages.isEmpty() ){
+            return null;
+        }
+
+        // every wildcard package gets replaced by the classes being used from it (keeping the order of resolving)
+        Map<String, Set<String>> classesByPackage = new LinkedHashMap<>();
+        wildcardPackages.forEach(wildcardPackage -> classesByPackage.putIfAbsent(wildcardPackage, new TreeSet<>()));
+        for( String className : findUsedClassNames(content) ){
+            if( explicitImports.contains(className) || isResolvable(DEFAULT_PACKAGE, className) ){
+                continue;
+            }
+            String resolvedPackage = wildcardPackages.stream().filter(wildcardPackage -> isResolvable(wildcardPackage, className)).findFirst().orElse(null);
+            if( resolvedPackage == null ){
+                logger.debug(String.format("Could not resolve class %s used inside %s, keeping wildcard imports of that file.", className, fxmlFile.toAbsolutePath()));
+                return null;
+            }
+            classesByPackage.get(resolvedPackage).add(className);
+        }
+
+        Set<String> replacedPackages = new HashSet<>();
+        StringBuffer rewrittenContent = new StringBuffer();
+        importMatcher = IMPORT_PATTERN.matcher(content);
+        while( importMatcher.find() ){
+            String replacement = importMatcher.group();
+            if( importMatcher.group(2) != null ){
+                String wildcardPackage = importMatcher.group(1);
+                // duplicated wildcard imports are only replaced once
+                Set<String> classNames = replacedPackages.add(wildcardPackage) ? classesByPackage.get(wildcardPackage) : new TreeSet<>();
+                replacement = classNames.stream().map(className -> "<?import " + wildcardPackage + "." + className + "?>").collect(Collectors.joining("\n"));
+            }
+            importMatcher.appendReplacement(rewrittenContent, Matcher.quoteReplacement(replacement));
+        }
+        importMatcher.appendTail(rewrittenContent);
+
+        logger.debug(String.format("Replaced wildcard imports of %s", fxmlFile.toAbsolutePath()));
+        return rewrittenContent.toString();
+    }
+
+    /**
+     * Collects the simple names of all classes being referenced by elements (instances, static properties) or
+     * attributes (static properties, type of fx:root).
+     */
+    static Set<String> findUsedClassNames(String content) {
+        Set<String> classNames = new TreeSet<>();
+        Matcher tagMatcher = TAG_PATTERN.matcher(COMMENT_PATTERN.matcher(content).replaceAll(""));
+        while( tagMatcher.find() ){
+            String tagContent = tagMatcher.group(1).trim();
+            int nameEnd = 0;
+            while( nameEnd < tagContent.length() && !Character.isWhitespace(tagContent.charAt(nameEnd)) && tagContent.charAt(nameEnd) != '/' ){
+                nameEnd++;
+            }
+            String elementName = tagContent.substring(0, nameEnd);
+            addClassName(classNames, elementName);
+
+            Matcher attributeMatcher = ATTRIBUTE_PATTERN.matcher(tagContent.substring(nameEnd));
+            while( attributeMatcher.find() ){
+                String attributeName = attributeMatcher.group(1);
+                if( "fx:root".equals(elementName) && "type".equals(attributeName) ){
+                    String attributeValue = attributeMatcher.group(2);
+                    addClassName(classNames, attributeValue.substring(1, attributeValue.length() - 1).trim());
+                } else if( attributeName.indexOf('.') > 0 ){
+                    addClassName(classNames, attributeName);
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static void addClassName(Set<String> classNames, String name) {
+        if( name.isEmpty() || name.contains(":") || !Character.isUpperCase(name.charAt(0)) ){
+            // namespaced elements (like fx:include), property elements or fully qualified classnames
+            return;
+        }
+        int separatorIndex = name.indexOf('.');
+        classNames.add(separatorIndex < 0 ? name : name.substring(0, separatorIndex));
+    }
+
+    private boolean isResolvable(String packageName, String className) {
+        return classpathLoader.getResource(packageName.replace('.', '/') + "/" + className + ".class") != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        classpathLoader.close();
+    }
+}
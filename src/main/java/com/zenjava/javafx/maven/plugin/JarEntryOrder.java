@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order of classes being loaded by some application, read from some class-load trace. Writing the classes of a
+ * jar-file in that order places everything required while starting the application at the beginning of that file.
+ * <p>
+ * Supported formats of the trace are:
+ * <ul>
+ * <li>output of "-verbose:class" of Java 8 (<code>[Loaded some.package.SomeClass from ...]</code>)</li>
+ * <li>output of "-verbose:class" or "-Xlog:class+load" of Java 9+ (<code>[0.123s][info][class,load] some.package.SomeClass source: ...</code>)</li>
+ * <li>class lists as written by "-XX:DumpLoadedClassList" (<code>some/package/SomeClass</code>)</li>
+ * </ul>
+ * All other lines are ignored.
+ */
+public class JarEntryOrder {
+
+    private static final String JAVA8_PREFIX = "[Loaded ";
+    private static final String UNIFIED_LOGGING_MARKER = "[class,load]";
+    private static final String CLASS_EXTENSION = ".class";
+
+    private final Set<String> entryNames;
+
+    private JarEntryOrder(Set<String> entryNames) {
+        this.entryNames = entryNames;
+    }
+
+    public static JarEntryOrder fromTrace(File traceFile) throws IOException {
+        Set<String> entryNames = new LinkedHashSet<>();
+        for( String line : Files.readAllLines(traceFile.toPath(), StandardCharsets.UTF_8) ){
+            String className = parseClassName(line.trim());
+            if( className != null ){
+                entryNames.add(className.replace('.', '/') + CLASS_EXTENSION);
+            }
+        }
+        return new JarEntryOrder(entryNames);
+    }
+
+    /**
+     * @return names of all jar-entries of the traced classes, in the order of loading
+     */
+    public Set<String> getEntryNames() {
+        return entryNames;
+    }
+
+    /**
+     * Rewrites the jar-file, having the manifest first, followed by all traced classes in the order of loading and
+     * all other entries in their previous order. No entry gets decompressed or compressed again.
+     *
+     * @param jarFile
+     * @param compressionLevel
+     * @return amount of entries written in the order of the trace
+     * @throws IOException when rewriting fails, a ZipException when the jar-file is not supported for raw copying
+     * (e.g. ZIP64-files)
+     */
+    public int applyTo(File jarFile, int compressionLevel) throws IOException {
+        int orderedEntries = 0;
+        try(RawJarFile sourceJar = RawJarFile.open(jarFile.toPath()); RawJarWriter targetJar = new RawJarWriter(jarFile.toPath(), compressionLevel)){
+            Map<String, RawJarFile.Entry> entriesByName = new HashMap<>();
+            List<RawJarFile.Entry> manifestEntries = new ArrayList<>();
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                entriesByName.putIfAbsent(entry.getName(), entry);
+                if( "META-INF/".equalsIgnoreCase(entry.getName()) || StreamingJarWriter.MANIFEST_NAME.equalsIgnoreCase(entry.getName()) ){
+                    manifestEntries.add(entry);
+                }
+            }
+            // JarInputStream requires the manifest being one of the first entries
+            for( RawJarFile.Entry entry : manifestEntries ){
+                targetJar.copyEntry(sourceJar, entry);
+            }
+            for( String entryName : entryNames ){
+                RawJarFile.Entry entry = entriesByName.get(entryName);
+                if( entry != null && targetJar.copyEntry(sourceJar, entry) ){
+                    orderedEntries++;
+                }
+            }
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                targetJar.copyEntry(sourceJar, entry);
+            }
+            targetJar.finish();
+        }
+        return orderedEntries;
+    }
+
+    private static String parseClassName(String line) {
+        if( line.isEmpty() ){
+            return null;
+        }
+        if( line.startsWith(JAVA8_PREFIX) ){
+            return firstToken(line.substring(JAVA8_PREFIX.length()));
+        }
+        int markerIndex = line.indexOf(UNIFIED_LOGGING_MARKER);
+        if( markerIndex >= 0 ){
+            // there might be more decorations, the classname follows the last one
+            int decorationsEnd = line.lastIndexOf("] ");
+            if( decorationsEnd < markerIndex ){
+                return null;
+            }
+            return firstToken(line.substring(decorationsEnd + 2));
+        }
+        if( line.startsWith("[") || line.startsWith("#") || line.startsWith("@") ){
+            return null;
+        }
+        // class list, which might have some additional information after the classname
+        String className = firstToken(line);
+        if( className == null || className.contains("/0x") || className.contains(":") ){
+            // hidden classes (like lambdas) are never part of the jar-file
+            return null;
+        }
+        return className;
+    }
+
+    private static String firstToken(String text) {
+        String trimmedText = text.trim();
+        if( trimmedText.isEmpty() ){
+            return null;
+        }
+        int spaceIndex = trimmedText.indexOf(' ');
+        return spaceIndex < 0 ? trimmedText : trimmedText.substring(0, spaceIndex);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Creates the jar index (META-INF/INDEX.LIST) inside the JavaFX JAR, listing the packages of that JAR and of all
+ * jar-files of its manifest-classpath, like "jar -i" does. Having such index makes the classloader only open the
+ * jar-files really containing the requested package instead of probing all of them.
+ * <p>
+ * As the dependencies rarely change, the part of the index describing them is cached and only created again when
+ * some of these jar-files has changed.
+ */
+public class JarIndexGenerator {
+
+    public static final String INDEX_NAME = "META-INF/INDEX.LIST";
+
+    private static final String INDEX_HEADER = "JarIndex-Version: 1.0\n\n";
+    private static final String VERSIONED_ENTRIES_PREFIX = "META-INF/versions/";
+
+    private final File cacheFile;
+    private final Log logger;
+
+    public JarIndexGenerator(File cacheFile, Log logger) {
+        this.cacheFile = cacheFile;
+        this.logger = logger;
+    }
+
+    /**
+     * Adds (or replaces) the jar index inside the main jar-file.
+     *
+     * @param mainJarFile
+     * @param baseDir folder the classpath entries are relative to
+     * @param classpathEntries all entries of the manifest-classpath
+     * @param compressionLevel
+     * @throws IOException when the index could not be written, a ZipException when the main jar-file is not supported
+     * for raw copying (e.g. ZIP64-files)
+     */
+    public void addIndex(File mainJarFile, File baseDir, List<String> classpathEntries, int compressionLevel) throws IOException {
+        String classpathIndex = getClasspathIndex(baseDir, classpathEntries);
+        try(RawJarFile sourceJar = RawJarFile.open(mainJarFile.toPath()); RawJarWriter targetJar = new RawJarWriter(mainJarFile.toPath(), compressionLevel)){
+            Set<String> mainJarPackages = new TreeSet<>();
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                if( INDEX_NAME.equalsIgnoreCase(entry.getName()) ){
+                    continue;
+                }
+                targetJar.copyEntry(sourceJar, entry);
+                addPackage(mainJarPackages, entry.getName());
+            }
+            StringBuilder index = new StringBuilder(INDEX_HEADER);
+            appendSection(index, mainJarFile.getName(), mainJarPackages);
+            index.append(classpathIndex);
+            targetJar.addEntry(INDEX_NAME, index.toString().getBytes(StandardCharsets.UTF_8), System.currentTimeMillis());
+            targetJar.finish();
+        }
+    }
+
+    private String getClasspathIndex(File baseDir, List<String> classpathEntries) throws IOException {
+        BuildFingerprint fingerprint = new BuildFingerprint();
+        for( String classpathEntry : classpathEntries ){
+            fingerprint.addFile(classpathEntry, new File(baseDir, classpathEntry));
+        }
+        String classpathFingerprint = fingerprint.toHexString();
+
+        if( cacheFile.exists() ){
+            try{
+                String cachedIndex = new String(Files.readAllBytes(cacheFile.toPath()), StandardCharsets.UTF_8);
+                int separatorIndex = cachedIndex.indexOf('\n');
+                if( separatorIndex > 0 && cachedIndex.substring(0, separatorIndex).equals(classpathFingerprint) ){
+                    logger.debug("Using cached jar index of classpath elements");
+                    return cachedIndex.substring(separatorIndex + 1);
+                }
+            } catch(IOException ex){
+                logger.debug(ex);
+            }
+        }
+
+        StringBuilder classpathIndex = new StringBuilder();
+        for( String classpathEntry : classpathEntries ){
+            Set<String> packages = new TreeSet<>();
+            try(ZipFile classpathJar = new ZipFile(new File(baseDir, classpathEntry))){
+                Enumeration<? extends ZipEntry> entries = classpathJar.entries();
+                while( entries.hasMoreElements() ){
+                    addPackage(packages, entries.nextElement().getName());
+                }
+            }
+            appendSection(classpathIndex, classpathEntry, packages);
+        }
+
+        Files.createDirectories(cacheFile.getAbsoluteFile().getParentFile().toPath());
+        Files.write(cacheFile.toPath(), (classpathFingerprint + "\n" + classpathIndex).getBytes(StandardCharsets.UTF_8));
+        return classpathIndex.toString();
+    }
+
+    private static void addPackage(Set<String> packages, String entryName) {
+        if( "META-INF/".equalsIgnoreCase(entryName) || INDEX_NAME.equalsIgnoreCase(entryName) || StreamingJarWriter.MANIFEST_NAME.equalsIgnoreCase(entryName) || entryName.startsWith(VERSIONED_ENTRIES_PREFIX) ){
+            return;
+        }
+        // same rule as used by the JDK: directory of the entry, or the name itself when being at root-level
+        int separatorIndex = entryName.lastIndexOf('/');
+        packages.add(separatorIndex == -1 ? entryName : entryName.substring(0, separatorIndex));
+    }
+
+    private static void appendSection(StringBuilder index, String jarName, Collection<String> packages) {
+        index.append(jarName).append("\n");
+        packages.forEach(packageName -> index.append(packageName).append("\n"));
+        index.append("\n");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Merges the content of dependencies into the JavaFX JAR, creating one single executable jar-file. All entries are
+ * copied without decompressing and compressing them again.
+ * <p>
+ * Entries existing in more than one jar-file are taken from the first one, starting with the JavaFX JAR followed by
+ * the dependencies in the order of the classpath, so the result is the same as when loading these classes from the
+ * classpath. Service registrations (META-INF/services) are merged instead, keeping all implementations. Manifests,
+ * signatures and jar indexes of dependencies are dropped, as these are not valid anymore for the merged jar-file.
+ */
+public class JarMerger {
+
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+    private static final Pattern DROPPED_ENTRY_PATTERN = Pattern.compile(
+            "META-INF/(MANIFEST\\.MF|INDEX\\.LIST|[^/]+\\.(SF|RSA|DSA|EC)|SIG-[^/]*)|(META-INF/versions/\\d+/)?module-info\\.class",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Log logger;
+    private final int compressionLevel;
+
+    public JarMerger(Log logger, int compressionLevel) {
+        this.logger = logger;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * @param jarFile the JavaFX JAR, which gets replaced by the merged jar-file
+     * @param dependencyFiles jar-files to merge, in the order of the classpath
+     * @return amount of duplicated entries which were skipped
+     * @throws IOException when merging fails, a ZipException when some jar-file is not supported for raw copying
+     * (e.g. ZIP64-files)
+     */
+    public int merge(File jarFile, List<File> dependencyFiles) throws IOException {
+        Map<String, Set<String>> services = new LinkedHashMap<>();
+        int duplicatedEntries = 0;
+        try(RawJarWriter targetJar = new RawJarWriter(jarFile.toPath(), compressionLevel)){
+            List<File> sourceFiles = new ArrayList<>();
+            sourceFiles.add(jarFile);
+            sourceFiles.addAll(dependencyFiles);
+            for( File sourceFile : sourceFiles ){
+                boolean isDependency = sourceFile != jarFile;
+                collectServices(sourceFile, services);
+                try(RawJarFile sourceJar = RawJarFile.open(sourceFile.toPath())){
+                    for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                        String entryName = entry.getName();
+                        if( isServiceEntry(entryName) || (isDependency && DROPPED_ENTRY_PATTERN.matcher(entryName).matches()) ){
+                            continue;
+                        }
+                        if( !targetJar.copyEntry(sourceJar, entry) && !entry.isDirectory() ){
+                            duplicatedEntries++;
+                            logger.debug(String.format("Skipped duplicated entry %s of %s", entryName, sourceFile.getName()));
+                        }
+                    }
+                }
+            }
+            for( Map.Entry<String, Set<String>> service : services.entrySet() ){
+                String content = String.join("\n", service.getValue()) + "\n";
+                targetJar.addEntry(service.getKey(), content.getBytes(StandardCharsets.UTF_8), jarFile.lastModified());
+            }
+            targetJar.finish();
+        }
+        return duplicatedEntries;
+    }
+
+    private static boolean isServiceEntry(String entryName) {
+        return entryName.startsWith(SERVICES_PREFIX) && entryName.length() > SERVICES_PREFIX.length() && !entryName.endsWith("/");
+    }
+
+    private static void collectServices(File sourceFile, Map<String, Set<String>> services) throws IOException {
+        try(ZipFile zipFile = new ZipFile(sourceFile)){
+            for( ZipEntry entry : zipFile.stream().filter(entry -> isServiceEntry(entry.getName())).toArray(ZipEntry[]::new) ){
+                Set<String> implementations = services.computeIfAbsent(entry.getName(), name -> new LinkedHashSet<>());
+                for( String line : readText(zipFile, entry).split("\\r?\\n") ){
+                    String implementation = line.replaceAll("#.*", "").trim();
+                    if( !implementation.isEmpty() ){
+                        implementations.add(implementation);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String readText(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try(InputStream entryStream = zipFile.getInputStream(entry)){
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while( (read = entryStream.read(buffer)) != -1 ){
+                content.write(buffer, 0, read);
+            }
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -25,17 +25,32 @@ import org.apache.maven.plugin.MojoFailureException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 
 /**
  * @goal build-jar
@@ -49,6 +64,9 @@ public class JarMojo extends AbstractJfxToolsMojo {
      * performance gains, but it's debatable whether you will notice them, and some people have experienced problems
      * with the resulting compiled files. Use at your own risk. By default this is false and CSS files are left in their
      * plain text format as they are found.
+     * <p>
+     * When running on Java 8, CSS files are converted by this plugin (using the worker threads set via workerThreads),
+     * and only stylesheets having changed since the previous build get converted again.
      *
      * @parameter property="jfx.css2bin" default-value=false
      */
@@ -110,6 +128,11 @@ public class JarMojo extends AbstractJfxToolsMojo {
     /**
      * In the case you don't want some dependency landing in the generated lib-folder (e.g. complex maven-dependencies),
      * you now can manually exclude that dependency by added it's coordinates here.
+     * <p>
+     * Since 8.9.0 groupId and artifactId can contain wildcards (<code>*</code> and <code>?</code>, using
+     * <code>**</code> for matching multiple parts of a groupId like <code>org.example.**</code>), and the version can
+     * be some version range (like <code>[1.0,2.0)</code>) for only excluding matching versions. Plain versions are
+     * still ignored. Every excluded dependency gets logged together with the matching exclude.
      *
      * @parameter property="jfx.classpathExcludes"
      * @since 8.2.0
@@ -173,6 +196,235 @@ public class JarMojo extends AbstractJfxToolsMojo {
      */
     protected String fixedManifestClasspath = null;
 
+    /**
+     * Per default dependencies are only copied into the lib-folder when no file with the same name exists there,
+     * which results in outdated SNAPSHOT-dependencies and files of removed dependencies staying inside the lib-folder.
+     * <p>
+     * Set this to true for keeping the lib-folder in sync with your dependencies: an index of all copied files
+     * is stored inside 'jfxStateDir', all changed dependencies get copied again and all files of dependencies
+     * not being part of your project anymore are removed. Files inside the lib-folder not copied by this plugin
+     * are not touched.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.syncLibFolder" default-value="false"
+     */
+    protected boolean syncLibFolder = false;
+
+    /**
+     * Per default all dependencies are copied into the lib-folder. To avoid writing the same bytes again, it is
+     * possible to link them from your local maven repository instead. Possible values are:
+     * <ul>
+     * <li>copy <i>(default, copies each file)</i></li>
+     * <li>hardlink <i>(creates hard links, requires the lib-folder being on the same filesystem as your local maven repository)</i></li>
+     * <li>symlink <i>(creates symbolic links, useful while developing, but the app-folder is not distributable anymore)</i></li>
+     * <li>reflink <i>(creates copy-on-write clones using "cp", requires some filesystem supporting this like btrfs, xfs or apfs)</i></li>
+     * </ul>
+     * When the requested mode isn't possible for some file, that file gets copied instead.
+     * <p>
+     * Please note: when using hardlinks, never modify files inside the lib-folder yourself, as this would modify
+     * the files inside your local maven repository too.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.dependencyStagingMode" default-value="copy"
+     */
+    protected String dependencyStagingMode = DependencyStager.MODE_COPY;
+
+    /**
+     * Some steps (like copying dependencies into the lib-folder) are able to work in parallel, which is mostly
+     * useful when having a lot of dependencies and a fast disk. Set this to the amount of threads to use, or set
+     * this to 0 for using all available processors. Per default everything is done one after another.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.workerThreads" default-value="1"
+     */
+    protected int workerThreads = 1;
+
+    /**
+     * Creating the JavaFX JAR is done on every build, even when nothing has changed. Set this to true for skipping
+     * the creation when all inputs (compiled classes, resources, manifest-entries and configuration) are the
+     * same as on the previous build and the JavaFX JAR still exists unmodified. The required information is stored
+     * inside 'jfxStateDir'.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.incrementalJarBuild" default-value="false"
+     */
+    protected boolean incrementalJarBuild = false;
+
+    /**
+     * Per default the JavaFX JAR is created by the JavaFX packager, which does not provide any control about how
+     * that JAR is written. Set this to true for using the streaming jar writer of this plugin instead, which streams
+     * all files directly into the JavaFX JAR, writes the same JavaFX-specific manifest-entries, and stores already
+     * compressed resources (like png, jpg or zip) without compressing them again. When combined with
+     * updateExistingJar, all entries of the existing jar-file are copied without decompressing and compressing them
+     * again, only the manifest gets replaced.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.useStreamingJarWriter" default-value="false"
+     */
+    protected boolean useStreamingJarWriter = false;
+
+    /**
+     * The compression level used by the streaming jar writer, ranging from 0 (no compression) to 9 (best compression).
+     * The default value of -1 uses the default compression level of the JRE.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.jarCompressionLevel" default-value="-1"
+     */
+    protected int jarCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Set this to true for adding a jar index (META-INF/INDEX.LIST) into the JavaFX JAR, listing the packages of the
+     * JavaFX JAR and all jar-files of its manifest-classpath. This avoids probing all jar-files of the classpath when
+     * loading classes. The part of the index describing the dependencies is only created again when some of them has
+     * changed. Please note that the jar index got removed with Java 18, newer versions ignore it.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.generateJarIndex" default-value="false"
+     */
+    protected boolean generateJarIndex = false;
+
+    /**
+     * File containing the order of classes being loaded while starting your application, like the output of running
+     * your application with "-verbose:class" (Java 8 and Java 9+ format) or some class list created using
+     * "-XX:DumpLoadedClassList". When set, the classes inside the JavaFX JAR are written in that order, having all
+     * classes required for starting your application at the beginning of the file, which improves read locality on
+     * slow disks or network drives.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.classLoadTraceFile"
+     */
+    protected File classLoadTraceFile;
+
+    /**
+     * FXML files importing whole packages (like <code>&lt;?import javafx.scene.control.*?&gt;</code>) make the
+     * FXMLLoader search every imported package for every used class, each failing try being a search through the
+     * whole classpath. Set this to true for replacing these wildcard imports with explicit imports of the used classes
+     * inside the FXML files of the JavaFX JAR. The rewritten files are written to 'jfxStateDir', the compiled files
+     * inside target/classes are not changed. Files using some class which can not be found at build-time are not
+     * changed. This is not possible when using updateExistingJar.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.optimizeFxmlImports" default-value="false"
+     */
+    protected boolean optimizeFxmlImports = false;
+
+    /**
+     * Set this to true for merging all dependencies into the JavaFX JAR instead of copying them into the lib-folder,
+     * creating one single executable jar-file without any manifest-classpath. Opening one jar-file instead of lots of
+     * them speeds up starting your application, especially on network drives or systems having some virus scanner.
+     * <p>
+     * Entries existing in multiple jar-files are taken from the first one (your project, followed by the dependencies
+     * in the order of the classpath), service registrations inside META-INF/services are merged. Signatures of
+     * dependencies are removed, as these are not valid anymore.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.singleJar" default-value="false"
+     */
+    protected boolean singleJar = false;
+
+    /**
+     * Set this to true for creating a JavaFX JAR which only contains the manifest required for launching your
+     * application, referencing the regular jar-file of your project (created by the maven-jar-plugin) via the
+     * manifest-classpath. That jar-file gets placed inside the lib-folder like all other dependencies (using
+     * dependencyStagingMode), so creating the JavaFX JAR takes the same time, no matter how big your project is.
+     * <p>
+     * As the classes are not part of the JavaFX JAR, css2bin, optimizeFxmlImports and classLoadTraceFile are not
+     * applied, and this can not be combined with singleJar.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.thinJar" default-value="false"
+     */
+    protected boolean thinJar = false;
+
+    /**
+     * Set this to true for removing files never used at runtime from all dependencies while placing them inside the
+     * lib-folder: maven metadata (META-INF/maven/**), embedded sources (**&#47;*.java) and javadoc package
+     * descriptions. Every slimmed dependency is cached inside 'jfxStateDir', so each one is only slimmed once.
+     * Signed dependencies are never changed.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.slimDependencies" default-value="false"
+     */
+    protected boolean slimDependencies = false;
+
+    /**
+     * Additional patterns of files to remove from dependencies when using slimDependencies, where <code>*</code>
+     * matches any part of a filename and <code>**</code> matches any part of a path, e.g.
+     * <code>META-INF/LICENSE*.txt</code> or <code>**&#47;test-data/**</code>.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.slimDependencyPatterns"
+     */
+    protected List<String> slimDependencyPatterns;
+
+    /**
+     * Some libraries (like JNA, sqlite-jdbc or LWJGL) are shipping native libraries for every operating system,
+     * either inside their jar-files or as separate artifacts having some classifier (like "natives-windows"). Set
+     * this to the operating system your application gets bundled for, for only having the native libraries of that
+     * system. Artifacts having some classifier of other systems are not added to the classpath, and native libraries
+     * of other systems are removed from all dependencies while placing them inside the lib-folder (cached like when
+     * using slimDependencies). Possible values are:
+     * <ul>
+     * <li>none <i>(default, nothing gets filtered)</i></li>
+     * <li>auto <i>(the system you are building on, as the native bundlers are only able to create bundles for that system)</i></li>
+     * <li>linux</li>
+     * <li>windows</li>
+     * <li>mac</li>
+     * </ul>
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.nativeLibraryPlatform" default-value="none"
+     */
+    protected String nativeLibraryPlatform = NativeLibraryFilter.PLATFORM_NONE;
+
+    /**
+     * Some libraries are extracting their native libraries into some temporary folder on every start of your
+     * application. Set this to true for extracting them at build-time into the folder 'nativeLibraryFolderName'
+     * inside the app-folder instead, the native launchers are configured to use these. Supported libraries are JNA
+     * and sqlite-jdbc. Native libraries are extracted for the operating system set by 'nativeLibraryPlatform', or the
+     * system you are building on when not set.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.extractNativeLibraries" default-value="false"
+     */
+    protected boolean extractNativeLibraries = false;
+
+    /**
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.nativeLibraryFolderName" default-value="native"
+     */
+    protected String nativeLibraryFolderName = "native";
+
+    private static final String SHARED_CACHE_NAMESPACE = "jar";
+
+    private LibFolderIndex libFolderIndex = null;
+
+    private DependencyStager dependencyStager = null;
+
+    private JarSlimmer jarSlimmer = null;
+
+    private NativeLibraryFilter nativeLibraryFilter = null;
+
+    private File binaryCssDir = null;
+
+    private File optimizedFxmlDir = null;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         if( jfxCallFromCLI ){
@@ -209,17 +461,62 @@ public class JarMojo extends AbstractJfxToolsMojo {
         createJarParams.setManifestAttrs(manifestAttributes);
 
         StringBuilder classpath = new StringBuilder();
+        List<File> mergedDependencyFiles = new ArrayList<>();
         File libDir = new File(jfxAppOutputDir, libFolderName);
         if( !libDir.exists() && !libDir.mkdirs() ){
             throw new MojoExecutionException("Unable to create app lib dir: " + libDir);
         }
+        if( !skipCopyingDependencies ){
+            removeShrunkLibraries();
+        }
+
+        if( !DependencyStager.isSupportedMode(dependencyStagingMode) ){
+            throw new MojoExecutionException("Unsupported value for <dependencyStagingMode>: " + dependencyStagingMode + ", please use one of " + DependencyStager.SUPPORTED_MODES);
+        }
+        dependencyStager = new DependencyStager(dependencyStagingMode, getLog());
+
+        if( !StreamingJarWriter.isValidCompressionLevel(jarCompressionLevel) ){
+            throw new MojoExecutionException("Unsupported value for <jarCompressionLevel>: " + jarCompressionLevel + ", please use -1 (default) or any value from 0 to 9");
+        }
+
+        if( thinJar && singleJar ){
+            throw new MojoExecutionException("Using <thinJar> and <singleJar> together is not possible, please choose one of them.");
+        }
 
-        if( updateExistingJar ){
+        if( !NativeLibraryFilter.isSupportedPlatform(nativeLibraryPlatform) ){
+            throw new MojoExecutionException("Unsupported value for <nativeLibraryPlatform>: " + nativeLibraryPlatform + ", please use one of " + NativeLibraryFilter.SUPPORTED_PLATFORMS);
+        }
+        nativeLibraryFilter = NativeLibraryFilter.forPlatform(nativeLibraryPlatform);
+        if( nativeLibraryFilter == null && NativeLibraryFilter.PLATFORM_AUTO.equalsIgnoreCase(nativeLibraryPlatform.trim()) ){
+            getLog().warn("Could not detect the platform for filtering native libraries, skipping.");
+        }
+
+        if( (slimDependencies || nativeLibraryFilter != null) && !skipCopyingDependencies ){
+            List<String> slimPatterns = new ArrayList<>();
+            if( slimDependencies ){
+                slimPatterns.addAll(JarSlimmer.DEFAULT_PATTERNS);
+                Optional.ofNullable(slimDependencyPatterns).ifPresent(slimPatterns::addAll);
+            }
+            jarSlimmer = new JarSlimmer(new File(jfxStateDir, "slim"), slimPatterns, nativeLibraryFilter, getLog());
+        }
+
+        if( syncLibFolder && !skipCopyingDependencies ){
+            libFolderIndex = LibFolderIndex.load(getLibFolderIndexFile(), getLog());
+        }
+
+        File jarSource;
+        if( thinJar ){
+            jarSource = new File(build.getDirectory() + File.separator + build.getFinalName() + ".jar");
+            if( !jarSource.exists() ){
+                throw new MojoExecutionException("Could not create thin JavaFX JAR, because the jar-file of your project does not exist. Please make sure this file gets created, or set thinJar to false.");
+            }
+        } else if( updateExistingJar ){
             File potentialExistingFile = new File(build.getDirectory() + File.separator + build.getFinalName() + ".jar");
             if( !potentialExistingFile.exists() ){
                 throw new MojoExecutionException("Could not update existing jar-file, because it does not exist. Please make sure this file gets created or exists, or set updateExistingJar to false.");
             }
             createJarParams.addResource(null, potentialExistingFile);
+            jarSource = potentialExistingFile;
         } else {
             File potentialExistingGeneratedClasses = new File(build.getOutputDirectory());
             // make sure folder exists, it is possible to have just some bootstraping "-jfx.jar"
@@ -227,10 +524,42 @@ public class JarMojo extends AbstractJfxToolsMojo {
                 getLog().warn("There were no classes build, this might be a problem of your project, if its not, just ignore this message. Continuing creating JavaFX JAR...");
                 potentialExistingGeneratedClasses.mkdirs();
             }
-            createJarParams.addResource(potentialExistingGeneratedClasses, "");
+            jarSource = potentialExistingGeneratedClasses;
+        }
+
+        if( optimizeFxmlImports ){
+            if( updateExistingJar || thinJar ){
+                getLog().warn("Optimizing FXML imports is not possible when using <updateExistingJar> or <thinJar>, skipping.");
+            } else {
+                optimizeFxmlImports(jarSource);
+            }
+        }
+
+        if( !thinJar && !updateExistingJar ){
+            addClassesFolder(createJarParams, jarSource);
+        }
+
+        if( thinJar && (css2bin || classLoadTraceFile != null) ){
+            getLog().warn("Converting CSS files and reordering classes is not possible when using <thinJar>, skipping.");
+        } else if( css2bin && CssCompiler.isAvailable() ){
+            compileCss(new File(build.getOutputDirectory()));
+            createJarParams.setCss2bin(false);
+            createJarParams.addResource(binaryCssDir, "");
         }
 
         try{
+            if( thinJar ){
+                // first on the classpath, having the same lookup order as when being inside the JavaFX JAR
+                getLog().debug(String.format("Including project jar-file: %s", jarSource.getAbsolutePath()));
+                File stagedProjectJar = new File(libDir, jarSource.getName());
+                if( libFolderIndex == null ){
+                    // the name of the project jar-file does not change between builds, so it has to be replaced every time
+                    dependencyStager.stage(jarSource.toPath(), stagedProjectJar.toPath());
+                } else {
+                    stageDependency(jarSource, stagedProjectJar);
+                }
+                classpath.append(libFolderName).append("/").append(jarSource.getName()).append(" ");
+            }
             if( checkIfJavaIsHavingPackagerJar() ){
                 getLog().debug("Check if packager.jar needs to be added");
                 if( addPackagerJar && !skipCopyingDependencies ){
@@ -243,10 +572,12 @@ public class JarMojo extends AbstractJfxToolsMojo {
                             String packagerJarFilePathString = packagerJarFile.toPath().normalize().toString();
                             if( packagerJarFile.exists() && packagerJarFilePathString.endsWith(targetPackagerJarPath) ){
                                 getLog().debug(String.format("Including packager.jar from system-scope: %s", packagerJarFilePathString));
-                                File dest = new File(libDir, packagerJarFile.getName());
-                                if( !dest.exists() ){
-                                    Files.copy(packagerJarFile.toPath(), dest.toPath());
+                                if( singleJar ){
+                                    mergedDependencyFiles.add(packagerJarFile);
+                                    continue;
                                 }
+                                File dest = new File(libDir, packagerJarFile.getName());
+                                stageDependency(packagerJarFile, dest);
                                 // this is for INSIDE the manifes-file, so always use "/"
                                 classpath.append(libFolderName).append("/").append(packagerJarFile.getName()).append(" ");
                             }
@@ -260,44 +591,69 @@ public class JarMojo extends AbstractJfxToolsMojo {
                     getLog().warn("Skipped checking for packager.jar. Please install at least Java 1.8u40 for using this feature.");
                 }
             }
-            List<String> brokenArtifacts = new ArrayList<>();
-            project.getArtifacts().stream().filter(artifact -> {
+            ClasspathExclusions classpathExclusions = createClasspathExclusions();
+            List<File> dependencyFiles = project.getArtifacts().stream().filter(artifact -> {
                 // filter all unreadable, non-file artifacts
                 File artifactFile = artifact.getFile();
                 return artifactFile.isFile() && artifactFile.canRead();
             }).filter(artifact -> {
-                if( classpathExcludes.isEmpty() ){
+                String matchingExclude = classpathExclusions.findMatchingExclude(artifact);
+                if( matchingExclude == null ){
                     return true;
                 }
-                boolean isListedInList = isListedInExclusionList(artifact);
-                return !isListedInList;
-            }).forEach(artifact -> {
-                File artifactFile = artifact.getFile();
-                getLog().debug(String.format("Including classpath element: %s", artifactFile.getAbsolutePath()));
-                File dest = new File(libDir, artifactFile.getName());
-                if( !dest.exists() ){
-                    try{
-                        if( !skipCopyingDependencies ){
-                            Files.copy(artifactFile.toPath(), dest.toPath());
-                        } else {
-                            getLog().info(String.format("Skipped copying classpath element: %s", artifactFile.getAbsolutePath()));
-                        }
-                    } catch(IOException ex){
-                        getLog().warn(String.format("Couldn't read from file %s", artifactFile.getAbsolutePath()));
-                        getLog().debug(ex);
-                        brokenArtifacts.add(artifactFile.getAbsolutePath());
-                    }
+                getLog().info(String.format("Excluding classpath element %s (matching exclude %s)", artifact.getId(), matchingExclude));
+                return false;
+            }).filter(artifact -> {
+                if( nativeLibraryFilter == null || !nativeLibraryFilter.isForeignClassifier(artifact.getClassifier()) ){
+                    return true;
+                }
+                getLog().info(String.format("Excluding native library for other platform: %s", artifact.getId()));
+                return false;
+            }).map(Artifact::getFile).collect(Collectors.toList());
+
+            if( extractNativeLibraries ){
+                extractNativeLibraries(dependencyFiles);
+            } else {
+                Files.deleteIfExists(new File(jfxStateDir, NativeLibraryExtractor.PROPERTIES_FILE_NAME).toPath());
+            }
+
+            if( singleJar ){
+                dependencyFiles.forEach(artifactFile -> getLog().debug(String.format("Merging classpath element: %s", artifactFile.getAbsolutePath())));
+                for( File dependencyFile : dependencyFiles ){
+                    mergedDependencyFiles.add(jarSlimmer == null ? dependencyFile : jarSlimmer.slim(dependencyFile));
                 }
+                dependencyFiles = Collections.emptyList();
+            }
+
+            // classpath is created before copying, as copying might be done in parallel (keeping the order)
+            dependencyFiles.forEach(artifactFile -> {
+                getLog().debug(String.format("Including classpath element: %s", artifactFile.getAbsolutePath()));
                 classpath.append(libFolderName).append("/").append(artifactFile.getName()).append(" ");
             });
+
+            List<String> brokenArtifacts = stageDependencies(dependencyFiles, libDir);
             if( !brokenArtifacts.isEmpty() ){
                 throw new MojoExecutionException("Error copying dependencies for application");
             }
+
+            if( jarSlimmer != null ){
+                jarSlimmer.saveIndex();
+            }
+
+            if( libFolderIndex != null ){
+                libFolderIndex.pruneOrphans(libDir, getLog()).forEach(removedFile -> {
+                    getLog().info(String.format("Removed orphaned classpath element: %s", removedFile));
+                });
+                libFolderIndex.save();
+            }
         } catch(IOException e){
             throw new MojoExecutionException("Error copying dependency for application", e);
         }
 
-        if( useLibFolderContentForManifestClasspath ){
+        String manifestClasspath = classpath.toString();
+        if( useLibFolderContentForManifestClasspath && singleJar ){
+            getLog().warn("You specified to use the content of the lib-folder AND to merge all dependencies into a single jar-file. The content of the lib-folder will be ignored.");
+        } else if( useLibFolderContentForManifestClasspath ){
             StringBuilder scannedClasspath = new StringBuilder();
             try{
                 Files.walkFileTree(libDir.toPath(), new SimpleFileVisitor<Path>() {
@@ -310,31 +666,65 @@ public class JarMojo extends AbstractJfxToolsMojo {
             } catch(IOException ioex){
                 getLog().warn("Got problem while scanning lib-folder", ioex);
             }
-            createJarParams.setClasspath(scannedClasspath.toString());
-        } else {
-            createJarParams.setClasspath(classpath.toString());
+            manifestClasspath = scannedClasspath.toString();
         }
 
-        Optional.ofNullable(fixedManifestClasspath).ifPresent(manifestClasspath -> {
-            if( manifestClasspath.trim().isEmpty() ){
-                return;
-            }
-            createJarParams.setClasspath(manifestClasspath);
+        if( fixedManifestClasspath != null && !fixedManifestClasspath.trim().isEmpty() ){
+            manifestClasspath = fixedManifestClasspath;
 
             if( useLibFolderContentForManifestClasspath ){
                 getLog().warn("You specified to use the content of the lib-folder AND specified a fixed classpath. The fixed classpath will get taken.");
             }
-        });
+        }
+        createJarParams.setClasspath(manifestClasspath);
 
         // https://docs.oracle.com/javase/8/docs/technotes/guides/deploy/manifest.html#JSDPG896
         if( allPermissions ){
             manifestAttributes.put("Permissions", "all-permissions");
         }
 
-        try{
-            getPackagerLib().packageAsJar(createJarParams);
-        } catch(PackagerException e){
-            throw new MojoExecutionException("Unable to build JFX JAR for application", e);
+        File jfxMainAppJarFile = new File(jfxAppOutputDir, jfxMainAppJarName);
+        String jarFingerprint = null;
+        if( incrementalJarBuild ){
+            jarFingerprint = createJarFingerprint(jarSource, manifestClasspath, mergedDependencyFiles, null);
+        }
+
+        SharedCache sharedCache = getSharedCache();
+        ChecksumIndex jarInputChecksums = null;
+        String sharedCacheKey = null;
+
+        if( jarFingerprint != null && BuildFingerprint.isUpToDate(getJarStateFile(), jarFingerprint, jfxMainAppJarFile) ){
+            getLog().info("JavaFX JAR is up to date, skipping creation.");
+        } else {
+            if( sharedCache != null ){
+                jarInputChecksums = ChecksumIndex.load(new File(jfxStateDir, "jar-checksums.index"), getLog());
+                sharedCacheKey = createJarFingerprint(jarSource, manifestClasspath, mergedDependencyFiles, jarInputChecksums);
+            }
+
+            if( sharedCacheKey != null && restoreJarFromSharedCache(sharedCache, sharedCacheKey, jfxMainAppJarFile) ){
+                getLog().info("Restored JavaFX JAR from shared cache, skipping creation.");
+            } else {
+                createJar(createJarParams, jarSource, jfxMainAppJarFile, manifestClasspath, mergedDependencyFiles);
+                if( sharedCacheKey != null ){
+                    sharedCache.publish(SHARED_CACHE_NAMESPACE, sharedCacheKey, jfxMainAppJarFile.toPath());
+                }
+            }
+
+            if( jarFingerprint != null ){
+                try{
+                    BuildFingerprint.storeState(getJarStateFile(), jarFingerprint, jfxMainAppJarFile);
+                } catch(IOException ex){
+                    getLog().warn("Couldn't store state of the created JavaFX JAR, it will be created again next time.", ex);
+                }
+            }
+        }
+
+        if( jarInputChecksums != null ){
+            try{
+                jarInputChecksums.save();
+            } catch(IOException ex){
+                getLog().warn("Couldn't store checksums of the JavaFX JAR inputs", ex);
+            }
         }
 
         if( copyAdditionalAppResourcesToJar ){
@@ -360,28 +750,412 @@ public class JarMojo extends AbstractJfxToolsMojo {
         }
     }
 
-    private boolean checkIfJavaIsHavingPackagerJar() {
-        if( JavaDetectionTools.IS_JAVA_8 && JavaDetectionTools.isAtLeastOracleJavaUpdateVersion(40) ){
-            return true;
+    private void createJar(CreateJarParams createJarParams, File jarSource, File jfxMainAppJarFile, String manifestClasspath, List<File> mergedDependencyFiles) throws MojoExecutionException {
+        if( thinJar ){
+            writeThinJar(jfxMainAppJarFile, manifestClasspath);
+        } else if( !isStreamingJarWriterUsable() || !writeJarWithStreamingJarWriter(jarSource, jfxMainAppJarFile, manifestClasspath) ){
+            try{
+                getPackagerLib().packageAsJar(createJarParams);
+            } catch(PackagerException e){
+                throw new MojoExecutionException("Unable to build JFX JAR for application", e);
+            }
         }
-        if( JavaDetectionTools.IS_JAVA_9 ){ // NOSONAR
+
+        if( singleJar ){
+            mergeDependencies(jfxMainAppJarFile, mergedDependencyFiles);
+        }
+
+        if( classLoadTraceFile != null && !thinJar ){
+            applyClassLoadOrder(jfxMainAppJarFile);
+        }
+
+        if( generateJarIndex ){
+            addJarIndex(jfxMainAppJarFile, manifestClasspath);
+        }
+    }
+
+    /**
+     * The cached JavaFX JAR is copied next to its target first, so the target is never left incomplete.
+     */
+    private boolean restoreJarFromSharedCache(SharedCache sharedCache, String sharedCacheKey, File jfxMainAppJarFile) {
+        Path cachedJarFile = sharedCache.find(SHARED_CACHE_NAMESPACE, sharedCacheKey);
+        if( cachedJarFile == null ){
+            return false;
+        }
+        Path temporaryJarFile = new File(jfxAppOutputDir, jfxMainAppJarName + ".tmp").toPath();
+        try{
+            Files.copy(cachedJarFile, temporaryJarFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryJarFile, jfxMainAppJarFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
             return true;
+        } catch(IOException ex){
+            getLog().warn("Couldn't restore JavaFX JAR from shared cache, creating it again.", ex);
+            try{
+                Files.deleteIfExists(temporaryJarFile);
+            } catch(IOException ignored){
+                // NO-OP
+            }
+            return false;
         }
-        return false;
     }
 
-    private boolean isListedInExclusionList(Artifact artifact) {
-        return classpathExcludes.stream().filter(dependency -> {
-            // we are checking for "groupID:artifactId:" because we don't care about versions nor types (jar, war, source, ...)
-            String dependencyTrailIdentifier = dependency.getGroupId() + ":" + dependency.getArtifactId() + ":";
+    /**
+     * Creates a fingerprint of everything being used for creating the JavaFX JAR. When adding some new setting
+     * having impact on the content of that JAR, please add that setting here too.
+     * <p>
+     * When having some checksum index, the fingerprint depends on the contents of all files only (not on their
+     * paths or timestamps), making it usable as key of the shared cache.
+     */
+    private String createJarFingerprint(File jarSource, String manifestClasspath, List<File> mergedDependencyFiles, ChecksumIndex checksumIndex) throws MojoExecutionException {
+        BuildFingerprint fingerprint = new BuildFingerprint().add("pluginVersion", pluginVersion);
+        if( checksumIndex == null ){
+            fingerprint.add("jfxAppOutputDir", jfxAppOutputDir.getAbsolutePath());
+        } else {
+            // other workspaces might be using another packager
+            fingerprint.add("java.version", System.getProperty("java.version"));
+        }
+        fingerprint.add("jfxMainAppJarName", jfxMainAppJarName)
+                .add("mainClass", mainClass)
+                .add("preLoader", preLoader)
+                .add("css2bin", css2bin)
+                .add("allPermissions", allPermissions)
+                .add("updateExistingJar", updateExistingJar)
+                .add("useStreamingJarWriter", useStreamingJarWriter)
+                .add("jarCompressionLevel", jarCompressionLevel)
+                .add("generateJarIndex", generateJarIndex)
+                .add("singleJar", singleJar)
+                .add("thinJar", thinJar)
+                .add("slimDependencies", slimDependencies)
+                .add("slimDependencyPatterns", slimDependencyPatterns)
+                .add("nativeLibraryPlatform", nativeLibraryPlatform);
+        try{
+            addFingerprintFile(fingerprint, "classLoadTraceFile", classLoadTraceFile, checksumIndex);
+            fingerprint.add("classpath", manifestClasspath)
+                    .addMap("manifestAttributes", manifestAttributes);
+            if( jarSource.isDirectory() ){
+                addFingerprintFileTree(fingerprint, "source", jarSource, checksumIndex);
+            } else {
+                addFingerprintFile(fingerprint, "source", jarSource, checksumIndex);
+            }
+            if( optimizedFxmlDir != null ){
+                addFingerprintFileTree(fingerprint, "optimizedFxml", optimizedFxmlDir, checksumIndex);
+            }
+            for( File additionalFolder : getAdditionalJarFolders() ){
+                addFingerprintFileTree(fingerprint, "additional", additionalFolder, checksumIndex);
+            }
+            for( File mergedDependencyFile : mergedDependencyFiles ){
+                addFingerprintFile(fingerprint, "mergedDependency", mergedDependencyFile, checksumIndex);
+            }
+            if( generateJarIndex ){
+                // content of the classpath is part of the jar index
+                for( String classpathEntry : getClasspathEntries(manifestClasspath) ){
+                    addFingerprintFile(fingerprint, "classpathElement", new File(jfxAppOutputDir, classpathEntry), checksumIndex);
+                }
+            }
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to check if JavaFX JAR is up to date", ex);
+        }
+        return fingerprint.toHexString();
+    }
+
+    private static void addFingerprintFile(BuildFingerprint fingerprint, String key, File file, ChecksumIndex checksumIndex) throws IOException {
+        if( checksumIndex == null ){
+            fingerprint.addFile(key, file);
+        } else {
+            fingerprint.addFileContent(key, file, checksumIndex);
+        }
+    }
 
-            // when not transitive, look at the artifact information
-            if( !classpathExcludesTransient ){
-                return dependencyTrailIdentifier.startsWith(artifact.getGroupId() + ":" + artifact.getArtifactId() + ":");
+    private static void addFingerprintFileTree(BuildFingerprint fingerprint, String key, File folder, ChecksumIndex checksumIndex) throws IOException {
+        if( checksumIndex == null ){
+            fingerprint.addFileTree(key, folder);
+        } else {
+            fingerprint.addFileTreeContent(key, folder, checksumIndex);
+        }
+    }
+
+    /**
+     * @return false, when the JavaFX packager has to be used instead
+     */
+    private boolean writeJarWithStreamingJarWriter(File jarSource, File jfxMainAppJarFile, String manifestClasspath) throws MojoExecutionException {
+        getLog().debug("Using streaming jar writer with compression level " + jarCompressionLevel);
+        StreamingJarWriter jarWriter = new StreamingJarWriter(jarCompressionLevel);
+        try{
+            if( updateExistingJar ){
+                Manifest manifest = StreamingJarWriter.createManifest(StreamingJarWriter.readManifest(jarSource), mainClass, preLoader, manifestClasspath, manifestAttributes);
+                try{
+                    jarWriter.rewriteJar(jarSource, jfxMainAppJarFile, manifest, getAdditionalJarFolders());
+                } catch(ZipException ex){
+                    getLog().warn("Could not copy entries of existing jar-file without recompressing them (" + ex.getMessage() + "), using JavaFX packager instead.");
+                    return false;
+                }
+            } else {
+                Manifest manifest = StreamingJarWriter.createManifest(null, mainClass, preLoader, manifestClasspath, manifestAttributes);
+                List<File> sourceFolders = new ArrayList<>();
+                // first folder wins on duplicate entries, so the optimized FXML files replace the compiled ones
+                Optional.ofNullable(optimizedFxmlDir).ifPresent(sourceFolders::add);
+                sourceFolders.add(jarSource);
+                sourceFolders.addAll(getAdditionalJarFolders());
+                jarWriter.writeJar(jfxMainAppJarFile, manifest, sourceFolders);
             }
+        } catch(IOException e){
+            throw new MojoExecutionException("Unable to build JFX JAR for application", e);
+        }
+        return true;
+    }
 
-            // when transitive, look at the trail
-            return artifact.getDependencyTrail().stream().anyMatch((dependencyTrail) -> (dependencyTrail.startsWith(dependencyTrailIdentifier)));
-        }).count() > 0;
+    private void writeThinJar(File jfxMainAppJarFile, String manifestClasspath) throws MojoExecutionException {
+        getLog().debug("Writing JavaFX JAR containing only the manifest");
+        Manifest manifest = StreamingJarWriter.createManifest(null, mainClass, preLoader, manifestClasspath, manifestAttributes);
+        try{
+            new StreamingJarWriter(jarCompressionLevel).writeJar(jfxMainAppJarFile, manifest, Collections.emptyList());
+        } catch(IOException e){
+            throw new MojoExecutionException("Unable to build JFX JAR for application", e);
+        }
+    }
+
+    private boolean isStreamingJarWriterUsable() {
+        if( !useStreamingJarWriter ){
+            return false;
+        }
+        if( css2bin && binaryCssDir == null ){
+            getLog().warn("The streaming jar writer does not support <css2bin> on this Java version, using JavaFX packager instead.");
+            return false;
+        }
+        return true;
+    }
+
+    private ClasspathExclusions createClasspathExclusions() throws MojoExecutionException {
+        try{
+            return new ClasspathExclusions(Optional.ofNullable(classpathExcludes).orElse(Collections.emptyList()), classpathExcludesTransient);
+        } catch(InvalidVersionSpecificationException ex){
+            throw new MojoExecutionException("Invalid version range inside <classpathExcludes>", ex);
+        }
+    }
+
+    private void extractNativeLibraries(List<File> dependencyFiles) throws IOException {
+        String platform = Optional.ofNullable(nativeLibraryFilter).map(NativeLibraryFilter::getPlatform).orElseGet(NativeLibraryFilter::detectHostPlatform);
+        File propertiesFile = new File(jfxStateDir, NativeLibraryExtractor.PROPERTIES_FILE_NAME);
+        if( platform == null ){
+            getLog().warn("Could not detect the platform for extracting native libraries, skipping.");
+            Files.deleteIfExists(propertiesFile.toPath());
+            return;
+        }
+        File nativeLibraryFolder = new File(jfxAppOutputDir, nativeLibraryFolderName);
+        NativeLibraryExtractor extractor = new NativeLibraryExtractor(nativeLibraryFolder, "$APPDIR/" + nativeLibraryFolderName, platform, getLog());
+        Map<String, String> systemProperties = extractor.extract(dependencyFiles);
+        NativeLibraryExtractor.storeProperties(propertiesFile, systemProperties);
+        getLog().debug(String.format("System properties for extracted native libraries: %s", systemProperties));
+    }
+
+    private void mergeDependencies(File jfxMainAppJarFile, List<File> mergedDependencyFiles) throws MojoExecutionException {
+        getLog().info(String.format("Merging %s dependencies into JavaFX JAR", mergedDependencyFiles.size()));
+        try{
+            int duplicatedEntries = new JarMerger(getLog(), jarCompressionLevel).merge(jfxMainAppJarFile, mergedDependencyFiles);
+            if( duplicatedEntries > 0 ){
+                getLog().info(String.format("Skipped %s duplicated entries, the first one on the classpath was taken (see debug output for details)", duplicatedEntries));
+            }
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to merge dependencies into JavaFX JAR", ex);
+        }
+    }
+
+    private void applyClassLoadOrder(File jfxMainAppJarFile) throws MojoExecutionException {
+        if( !classLoadTraceFile.isFile() ){
+            getLog().warn(String.format("Class-load trace %s does not exist, skipped reordering JavaFX JAR.", classLoadTraceFile.getAbsolutePath()));
+            return;
+        }
+        getLog().info("Reordering JavaFX JAR by class-load trace");
+        try{
+            int orderedEntries = JarEntryOrder.fromTrace(classLoadTraceFile).applyTo(jfxMainAppJarFile, jarCompressionLevel);
+            getLog().info(String.format("Moved %s classes to the beginning of the JavaFX JAR", orderedEntries));
+        } catch(ZipException ex){
+            getLog().warn("Could not reorder JavaFX JAR (" + ex.getMessage() + ")");
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to reorder JavaFX JAR", ex);
+        }
+    }
+
+    private void addJarIndex(File jfxMainAppJarFile, String manifestClasspath) throws MojoExecutionException {
+        List<String> classpathEntries = getClasspathEntries(manifestClasspath);
+        for( String classpathEntry : classpathEntries ){
+            // an incomplete index breaks classloading, as not listed packages are not searched
+            if( !new File(jfxAppOutputDir, classpathEntry).isFile() ){
+                getLog().warn(String.format("Classpath element %s is not a jar-file inside %s, skipped creating jar index.", classpathEntry, jfxAppOutputDir.getAbsolutePath()));
+                return;
+            }
+        }
+        getLog().info("Adding jar index to JavaFX JAR");
+        try{
+            new JarIndexGenerator(new File(jfxStateDir, "jar-index.cache"), getLog()).addIndex(jfxMainAppJarFile, jfxAppOutputDir, classpathEntries, jarCompressionLevel);
+        } catch(ZipException ex){
+            getLog().warn("Could not add jar index to JavaFX JAR (" + ex.getMessage() + ")");
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to add jar index to JavaFX JAR", ex);
+        }
+    }
+
+    private List<String> getClasspathEntries(String manifestClasspath) {
+        return Arrays.stream(Optional.ofNullable(manifestClasspath).orElse("").trim().split("\\s+"))
+                .filter(classpathEntry -> !classpathEntry.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return all folders containing generated files to be added into the JavaFX JAR
+     */
+    private List<File> getAdditionalJarFolders() {
+        List<File> additionalFolders = new ArrayList<>();
+        Optional.ofNullable(binaryCssDir).ifPresent(additionalFolders::add);
+        return additionalFolders;
+    }
+
+    private void optimizeFxmlImports(File fxmlSourceFolder) throws MojoExecutionException {
+        optimizedFxmlDir = new File(jfxStateDir, "fxml");
+        List<File> classpath = new ArrayList<>();
+        classpath.add(fxmlSourceFolder);
+        project.getArtifacts().stream().map(Artifact::getFile).filter(artifactFile -> artifactFile != null && artifactFile.exists()).forEach(classpath::add);
+        try(FxmlImportOptimizer fxmlImportOptimizer = new FxmlImportOptimizer(classpath, getLog())){
+            int rewrittenFiles = fxmlImportOptimizer.optimize(fxmlSourceFolder, optimizedFxmlDir);
+            getLog().info(String.format("Replaced wildcard imports inside %s FXML files", rewrittenFiles));
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to optimize imports of FXML files", ex);
+        }
+    }
+
+    private void addClassesFolder(CreateJarParams createJarParams, File classesFolder) throws MojoExecutionException {
+        if( optimizedFxmlDir == null || !optimizedFxmlDir.isDirectory() ){
+            createJarParams.addResource(classesFolder, "");
+            return;
+        }
+        // the JavaFX packager fails on duplicate entries, so skip all compiled files having some optimized replacement
+        Path classesPath = classesFolder.toPath();
+        Path optimizedFxmlPath = optimizedFxmlDir.toPath();
+        try(Stream<Path> walkstream = Files.walk(classesPath)){
+            walkstream.filter(Files::isRegularFile)
+                    .filter(path -> !Files.isRegularFile(optimizedFxmlPath.resolve(classesPath.relativize(path).toString())))
+                    .forEach(path -> createJarParams.addResource(classesFolder, path.toFile()));
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to collect classes for JavaFX JAR", ex);
+        }
+        createJarParams.addResource(optimizedFxmlDir, "");
+    }
+
+    private void compileCss(File cssSourceFolder) throws MojoExecutionException {
+        binaryCssDir = new File(jfxStateDir, "bss");
+        getLog().info("Converting CSS files to binary format");
+        try{
+            int convertedFiles = new CssCompiler(new File(jfxStateDir, "css2bin.index"), getLog(), getWorkerThreadCount()).compile(cssSourceFolder, binaryCssDir);
+            getLog().debug(String.format("Converted %s CSS files", convertedFiles));
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to convert CSS files to binary format", ex);
+        }
+    }
+
+    private File getJarStateFile() {
+        return new File(jfxStateDir, "jfx-jar.state");
+    }
+
+    private List<String> stageDependencies(List<File> dependencyFiles, File libDir) throws MojoExecutionException {
+        List<String> brokenArtifacts = Collections.synchronizedList(new ArrayList<>());
+
+        // when having multiple dependencies with the same filename, only the first one gets copied
+        Map<String, File> filesToStage = new LinkedHashMap<>();
+        dependencyFiles.forEach(artifactFile -> filesToStage.putIfAbsent(artifactFile.getName(), artifactFile));
+
+        List<Runnable> stagingTasks = filesToStage.values().stream().map(artifactFile -> (Runnable) () -> {
+            File dest = new File(libDir, artifactFile.getName());
+            try{
+                if( !skipCopyingDependencies ){
+                    stageDependency(jarSlimmer == null ? artifactFile : jarSlimmer.slim(artifactFile), dest);
+                } else if( !dest.exists() ){
+                    getLog().info(String.format("Skipped copying classpath element: %s", artifactFile.getAbsolutePath()));
+                }
+            } catch(IOException ex){
+                getLog().warn(String.format("Couldn't read from file %s", artifactFile.getAbsolutePath()));
+                getLog().debug(ex);
+                brokenArtifacts.add(artifactFile.getAbsolutePath());
+            }
+        }).collect(Collectors.toList());
+
+        int threads = Math.min(getWorkerThreadCount(), stagingTasks.size());
+        if( threads <= 1 ){
+            stagingTasks.forEach(Runnable::run);
+            return brokenArtifacts;
+        }
+
+        getLog().debug(String.format("Copying %s classpath elements using %s threads", stagingTasks.size(), threads));
+        ExecutorService stagingExecutor = Executors.newFixedThreadPool(threads);
+        try{
+            List<Future<?>> stagingResults = stagingTasks.stream().map(stagingExecutor::submit).collect(Collectors.toList());
+            for( Future<?> stagingResult : stagingResults ){
+                stagingResult.get();
+            }
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while copying dependencies for application", ex);
+        } catch(ExecutionException ex){
+            throw new MojoExecutionException("Error copying dependencies for application", ex.getCause());
+        } finally{
+            stagingExecutor.shutdownNow();
+        }
+        return brokenArtifacts;
+    }
+
+    protected int getWorkerThreadCount() {
+        if( workerThreads <= 0 ){
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return workerThreads;
+    }
+
+    private void stageDependency(File source, File dest) throws IOException {
+        if( libFolderIndex == null ){
+            if( !dest.exists() ){
+                dependencyStager.stage(source.toPath(), dest.toPath());
+            }
+            return;
+        }
+        if( libFolderIndex.isUpToDate(source, dest) ){
+            getLog().debug(String.format("Classpath element is up to date: %s", dest.getAbsolutePath()));
+        } else {
+            dependencyStager.stage(source.toPath(), dest.toPath());
+        }
+        libFolderIndex.markStaged(source, dest);
+    }
+
+    /**
+     * Dependencies shrunk by some previous call of shrink-app are missing classes, which might be used by the current
+     * classes. Removing them makes them being staged again.
+     */
+    private void removeShrunkLibraries() throws MojoExecutionException {
+        File recordFile = new File(jfxStateDir, ShrinkMojo.SHRUNK_LIBRARIES_FILE_NAME);
+        if( !recordFile.isFile() ){
+            return;
+        }
+        try{
+            for( String shrunkLibrary : Files.readAllLines(recordFile.toPath(), StandardCharsets.UTF_8) ){
+                if( !shrunkLibrary.trim().isEmpty() ){
+                    getLog().debug("Removing shrunk dependency: " + shrunkLibrary);
+                    Files.deleteIfExists(new File(jfxAppOutputDir, shrunkLibrary.trim()).toPath());
+                }
+            }
+            Files.delete(recordFile.toPath());
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to remove dependencies shrunk by some previous build", ex);
+        }
+    }
+
+    private File getLibFolderIndexFile() {
+        return new File(jfxStateDir, "lib-folder.index");
+    }
+
+    private boolean checkIfJavaIsHavingPackagerJar() {
+        if( JavaDetectionTools.IS_JAVA_8 && JavaDetectionTools.isAtLeastOracleJavaUpdateVersion(40) ){
+            return true;
+        }
+        if( JavaDetectionTools.IS_JAVA_9 ){ // NOSONAR
+            return true;
+        }
+        return false;
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Removes entries not required at runtime (like maven metadata or embedded sources) from dependencies before they
+ * are placed inside the lib-folder. Every slimmed jar-file is cached inside the cache-folder, using the checksum of
+ * the original jar-file and the used patterns as key, so each dependency is only slimmed once. Checksums are only
+ * calculated again when size or last-modified timestamp of some dependency have changed.
+ * <p>
+ * When having some native library filter, all native libraries of other operating systems are removed too.
+ * <p>
+ * Signed jar-files are never changed, as removing entries would break their signature.
+ */
+public class JarSlimmer {
+
+    /**
+     * Patterns used when no other patterns are configured, matching only files never being used at runtime.
+     */
+    public static final List<String> DEFAULT_PATTERNS = Collections.unmodifiableList(Arrays.asList(
+            "META-INF/maven/**",
+            "**/*.java",
+            "**/package.html",
+            "**/overview.html"
+    ));
+
+    private static final Pattern SIGNATURE_FILE_PATTERN = Pattern.compile("META-INF/[^/]+\\.(SF|RSA|DSA|EC)", Pattern.CASE_INSENSITIVE);
+
+    private final File cacheDir;
+    private final List<WildcardPattern> patterns;
+    private final NativeLibraryFilter nativeLibraryFilter;
+    private final String patternsChecksum;
+    private final Log logger;
+    private final ChecksumIndex checksumIndex;
+
+    /**
+     * @param cacheDir folder for storing the slimmed jar-files
+     * @param patterns patterns of entries to remove, using '/' as separator (e.g. <code>META-INF/maven/**</code>)
+     * @param nativeLibraryFilter filter for removing native libraries of other platforms, might be null
+     * @param logger
+     */
+    public JarSlimmer(File cacheDir, List<String> patterns, NativeLibraryFilter nativeLibraryFilter, Log logger) {
+        this.cacheDir = cacheDir;
+        this.patterns = patterns.stream().map(String::trim).filter(pattern -> !pattern.isEmpty()).map(pattern -> new WildcardPattern(pattern, '/')).collect(Collectors.toList());
+        this.nativeLibraryFilter = nativeLibraryFilter;
+        this.patternsChecksum = new BuildFingerprint()
+                .add("patterns", this.patterns.toString())
+                .add("nativeLibraryPlatform", nativeLibraryFilter == null ? null : nativeLibraryFilter.getPlatform())
+                .toHexString().substring(0, 16);
+        this.logger = logger;
+        this.checksumIndex = ChecksumIndex.load(new File(cacheDir, "checksums.index"), logger);
+    }
+
+    /**
+     * Returns the slimmed version of that jar-file, creating it when not already cached. This is thread-safe.
+     *
+     * @param jarFile
+     * @return the slimmed jar-file, or the given jar-file when nothing has to be removed
+     * @throws IOException
+     */
+    public File slim(File jarFile) throws IOException {
+        if( (patterns.isEmpty() && nativeLibraryFilter == null) || !jarFile.getName().toLowerCase().endsWith(".jar") ){
+            return jarFile;
+        }
+        String checksum = checksumIndex.getChecksum(jarFile);
+        File slimmedJarFile = new File(cacheDir, checksum + "-" + patternsChecksum + ".jar");
+        File unchangedMarker = new File(cacheDir, checksum + "-" + patternsChecksum + ".unchanged");
+        if( slimmedJarFile.isFile() ){
+            return slimmedJarFile;
+        }
+        if( unchangedMarker.isFile() ){
+            return jarFile;
+        }
+
+        Files.createDirectories(cacheDir.toPath());
+        long previousSize = jarFile.length();
+        try(RawJarFile sourceJar = RawJarFile.open(jarFile.toPath())){
+            List<RawJarFile.Entry> keptEntries = new ArrayList<>();
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                if( SIGNATURE_FILE_PATTERN.matcher(entry.getName()).matches() ){
+                    logger.debug(String.format("Not slimming signed jar-file %s", jarFile.getName()));
+                    keptEntries = null;
+                    break;
+                }
+                if( !isRemoved(entry.getName()) ){
+                    keptEntries.add(entry);
+                }
+            }
+            if( keptEntries == null || keptEntries.size() == sourceJar.getEntries().size() ){
+                Files.write(unchangedMarker.toPath(), new byte[0]);
+                return jarFile;
+            }
+            // the writer uses some temporary file, so other threads never see half-written files
+            try(RawJarWriter targetJar = new RawJarWriter(slimmedJarFile.toPath(), Deflater.DEFAULT_COMPRESSION)){
+                for( RawJarFile.Entry entry : keptEntries ){
+                    targetJar.copyEntry(sourceJar, entry);
+                }
+                targetJar.finish();
+            }
+        } catch(ZipException ex){
+            logger.debug(String.format("Could not slim %s (%s)", jarFile.getName(), ex.getMessage()));
+            return jarFile;
+        }
+        logger.debug(String.format("Slimmed %s by %s bytes", jarFile.getName(), previousSize - slimmedJarFile.length()));
+        return slimmedJarFile;
+    }
+
+    public void saveIndex() throws IOException {
+        checksumIndex.save();
+    }
+
+    private boolean isRemoved(String entryName) {
+        if( nativeLibraryFilter != null && nativeLibraryFilter.isForeignEntry(entryName) ){
+            return true;
+        }
+        return patterns.stream().anyMatch(pattern -> pattern.matches(entryName));
+    }
+}
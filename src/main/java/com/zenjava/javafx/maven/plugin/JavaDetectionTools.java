@@ -46,4 +46,16 @@ public class JavaDetectionTools {
         String javaUpdateVersion = javaUpdateVersionRaw.replaceAll("[^\\d]", "");
         return Integer.parseInt(javaUpdateVersion, 10) >= updateNumber;
     }
+
+    /**
+     * @return the feature version of the running Java, like 8 for "1.8" or 10 for "10"
+     */
+    public static int getJavaFeatureVersion() {
+        String specificationVersion = System.getProperty("java.specification.version", "");
+        try{
+            return Integer.parseInt(specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion);
+        } catch(NumberFormatException ex){
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Index of all files copied into the lib-folder by a previous build. Each entry contains size, last-modified
+ * timestamp and checksum of the source-file, which makes it possible to only copy changed dependencies (like
+ * SNAPSHOT-versions having the same filename) and to remove files of dependencies not being part of the
+ * project anymore.
+ * <p>
+ * Files inside the lib-folder which are not listed inside this index (e.g. copied by some other plugin) are
+ * never touched.
+ */
+public class LibFolderIndex {
+
+    private static final String ENTRY_SEPARATOR = ";";
+
+    private final File indexFile;
+    private final Map<String, Entry> knownEntries = new ConcurrentHashMap<>();
+    private final Set<String> stagedEntries = ConcurrentHashMap.newKeySet();
+
+    private LibFolderIndex(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    public static LibFolderIndex load(File indexFile, Log logger) {
+        LibFolderIndex index = new LibFolderIndex(indexFile);
+        if( !indexFile.exists() ){
+            return index;
+        }
+        Properties storedEntries = new Properties();
+        try(InputStream indexStream = Files.newInputStream(indexFile.toPath())){
+            storedEntries.load(indexStream);
+        } catch(IOException ex){
+            logger.warn("Couldn't read index of lib-folder, all dependencies will be copied again.", ex);
+            return index;
+        }
+        storedEntries.stringPropertyNames().forEach(fileName -> {
+            String[] values = storedEntries.getProperty(fileName).split(ENTRY_SEPARATOR);
+            if( values.length != 3 ){
+                // broken entry, just ignore it, as it results in copying that file again
+                return;
+            }
+            try{
+                index.knownEntries.put(fileName, new Entry(Long.parseLong(values[0]), Long.parseLong(values[1]), values[2]));
+            } catch(NumberFormatException ignored){
+                // NO-OP
+            }
+        });
+        return index;
+    }
+
+    /**
+     * Checks if the target-file still contains the same content as the source-file. The checksum is only
+     * calculated when size or last-modified timestamp of the source-file differs from the indexed values.
+     *
+     * @param source the file to copy
+     * @param target the file inside the lib-folder
+     * @return true, when no copy is required
+     * @throws IOException
+     */
+    public boolean isUpToDate(File source, File target) throws IOException {
+        Entry entry = knownEntries.get(target.getName());
+        if( entry == null || !target.exists() || target.length() != source.length() ){
+            return false;
+        }
+        if( entry.size == source.length() && entry.lastModified == source.lastModified() ){
+            return true;
+        }
+        // touched, but maybe not changed (e.g. re-downloaded)
+        Entry currentEntry = createEntry(source);
+        if( currentEntry.checksum.equals(entry.checksum) ){
+            knownEntries.put(target.getName(), currentEntry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks the target-file as being part of the current build, updating the indexed values if required.
+     *
+     * @param source the file copied
+     * @param target the file inside the lib-folder
+     * @throws IOException
+     */
+    public void markStaged(File source, File target) throws IOException {
+        String fileName = target.getName();
+        Entry entry = knownEntries.get(fileName);
+        if( entry == null || entry.size != source.length() || entry.lastModified != source.lastModified() ){
+            knownEntries.put(fileName, createEntry(source));
+        }
+        stagedEntries.add(fileName);
+    }
+
+    /**
+     * Removes all files from the lib-folder, which were copied by some previous build, but were not staged
+     * within the current one.
+     *
+     * @param libDir the lib-folder
+     * @param logger
+     * @return list of all removed filenames
+     */
+    public List<String> pruneOrphans(File libDir, Log logger) {
+        List<String> removedFiles = new ArrayList<>();
+        knownEntries.keySet().stream().filter(fileName -> !stagedEntries.contains(fileName)).forEach(fileName -> {
+            File orphanedFile = new File(libDir, fileName);
+            try{
+                Files.deleteIfExists(orphanedFile.toPath());
+                removedFiles.add(fileName);
+            } catch(IOException ex){
+                logger.warn(String.format("Couldn't remove orphaned file %s from lib-folder", orphanedFile.getAbsolutePath()), ex);
+            }
+        });
+        removedFiles.forEach(knownEntries::remove);
+        return removedFiles;
+    }
+
+    public void save() throws IOException {
+        Properties storedEntries = new Properties();
+        knownEntries.forEach((fileName, entry) -> {
+            storedEntries.setProperty(fileName, entry.size + ENTRY_SEPARATOR + entry.lastModified + ENTRY_SEPARATOR + entry.checksum);
+        });
+        Files.createDirectories(indexFile.getParentFile().toPath());
+        try(OutputStream indexStream = Files.newOutputStream(indexFile.toPath())){
+            storedEntries.store(indexStream, "lib-folder index of javafx-maven-plugin, do not edit");
+        }
+    }
+
+    private static Entry createEntry(File source) throws IOException {
+        return new Entry(source.length(), source.lastModified(), BuildFingerprint.checksumOf(source.toPath()));
+    }
+
+    private static class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String checksum;
+
+        Entry(long size, long lastModified, String checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Extracts native libraries embedded inside dependencies at build-time, so they don't need to be extracted into some
+ * temporary folder on every start of the application. Every supported library gets configured by system properties
+ * to load its native library from the extracted location:
+ * <ul>
+ * <li>JNA (<code>com/sun/jna/&lt;os-arch&gt;/</code>), using "jna.boot.library.path" and "jna.nounpack"</li>
+ * <li>sqlite-jdbc (<code>org/sqlite/native/&lt;OS&gt;/&lt;arch&gt;/</code>), using "org.sqlite.lib.path" and "org.sqlite.lib.name"</li>
+ * </ul>
+ * Native libraries are only extracted for the platform and architecture of the system running the build, as the
+ * native bundlers are only able to create bundles for that system.
+ */
+public class NativeLibraryExtractor {
+
+    /**
+     * name of the file inside 'jfxStateDir' containing the system properties for the native launchers
+     */
+    public static final String PROPERTIES_FILE_NAME = "native-libraries.properties";
+
+    private final File targetFolder;
+    private final String runtimePath;
+    private final String platform;
+    private final Log logger;
+
+    /**
+     * @param targetFolder folder inside the app-folder for the extracted libraries
+     * @param runtimePath path of that folder used by the application, like "$APPDIR/native"
+     * @param platform one of linux, windows or mac
+     * @param logger
+     */
+    public NativeLibraryExtractor(File targetFolder, String runtimePath, String platform, Log logger) {
+        this.targetFolder = targetFolder;
+        this.runtimePath = runtimePath;
+        this.platform = platform;
+        this.logger = logger;
+    }
+
+    /**
+     * Extracts all supported native libraries found inside the jar-files. Existing files are only written again when
+     * their content has changed.
+     *
+     * @param jarFiles
+     * @return system properties required for loading the extracted libraries
+     * @throws IOException
+     */
+    public Map<String, String> extract(List<File> jarFiles) throws IOException {
+        Map<String, String> systemProperties = new LinkedHashMap<>();
+        for( File jarFile : jarFiles ){
+            if( !jarFile.getName().toLowerCase(Locale.ENGLISH).endsWith(".jar") ){
+                continue;
+            }
+            try(ZipFile zipFile = new ZipFile(jarFile)){
+                ZipEntry jnaEntry = findFirstEntry(zipFile, getJnaCandidates());
+                if( jnaEntry != null && !systemProperties.containsKey("jna.boot.library.path") ){
+                    extractEntry(zipFile, jnaEntry);
+                    systemProperties.put("jna.boot.library.path", runtimePath);
+                    // fail instead of extracting again when not matching
+                    systemProperties.put("jna.nounpack", "true");
+                }
+                ZipEntry sqliteEntry = findFirstEntry(zipFile, getSqliteCandidates());
+                if( sqliteEntry != null && !systemProperties.containsKey("org.sqlite.lib.path") ){
+                    String fileName = extractEntry(zipFile, sqliteEntry);
+                    systemProperties.put("org.sqlite.lib.path", runtimePath);
+                    systemProperties.put("org.sqlite.lib.name", fileName);
+                }
+            }
+        }
+        return systemProperties;
+    }
+
+    /**
+     * Writes the system properties into some properties-file, or removes that file when having no properties.
+     *
+     * @param propertiesFile
+     * @param systemProperties
+     * @throws IOException
+     */
+    public static void storeProperties(File propertiesFile, Map<String, String> systemProperties) throws IOException {
+        if( systemProperties.isEmpty() ){
+            Files.deleteIfExists(propertiesFile.toPath());
+            return;
+        }
+        Properties storedProperties = new Properties();
+        storedProperties.putAll(systemProperties);
+        Files.createDirectories(propertiesFile.getParentFile().toPath());
+        try(OutputStream propertiesStream = Files.newOutputStream(propertiesFile.toPath())){
+            storedProperties.store(propertiesStream, "system properties for extracted native libraries of javafx-maven-plugin, do not edit");
+        }
+    }
+
+    /**
+     * @param propertiesFile
+     * @return all stored system properties, empty when that file does not exist
+     * @throws IOException
+     */
+    public static Map<String, String> loadProperties(File propertiesFile) throws IOException {
+        Map<String, String> systemProperties = new LinkedHashMap<>();
+        if( !propertiesFile.isFile() ){
+            return systemProperties;
+        }
+        Properties storedProperties = new Properties();
+        try(InputStream propertiesStream = Files.newInputStream(propertiesFile.toPath())){
+            storedProperties.load(propertiesStream);
+        }
+        storedProperties.stringPropertyNames().forEach(key -> systemProperties.put(key, storedProperties.getProperty(key)));
+        return systemProperties;
+    }
+
+    private List<String> getJnaCandidates() {
+        String arch = getArchitecture();
+        String jnaArch = "x86_64".equals(arch) ? "x86-64" : arch;
+        List<String> candidates = new ArrayList<>();
+        switch(platform) {
+            case NativeLibraryFilter.PLATFORM_WINDOWS:
+                candidates.add("com/sun/jna/win32-" + jnaArch + "/jnidispatch.dll");
+                break;
+            case NativeLibraryFilter.PLATFORM_MAC:
+                candidates.add("com/sun/jna/darwin-" + jnaArch + "/libjnidispatch.jnilib");
+                // older versions are shipping one universal library
+                candidates.add("com/sun/jna/darwin/libjnidispatch.jnilib");
+                break;
+            default:
+                candidates.add("com/sun/jna/linux-" + jnaArch + "/libjnidispatch.so");
+                break;
+        }
+        return candidates;
+    }
+
+    private List<String> getSqliteCandidates() {
+        String arch = getArchitecture();
+        switch(platform) {
+            case NativeLibraryFilter.PLATFORM_WINDOWS:
+                return Arrays.asList("org/sqlite/native/Windows/" + arch + "/sqlitejdbc.dll");
+            case NativeLibraryFilter.PLATFORM_MAC:
+                return Arrays.asList("org/sqlite/native/Mac/" + arch + "/libsqlitejdbc.dylib", "org/sqlite/native/Mac/" + arch + "/libsqlitejdbc.jnilib");
+            default:
+                return Arrays.asList("org/sqlite/native/Linux/" + arch + "/libsqlitejdbc.so");
+        }
+    }
+
+    /**
+     * @return the architecture of the running JVM, named like most libraries do
+     */
+    private static String getArchitecture() {
+        String osArch = System.getProperty("os.arch", "").toLowerCase(Locale.ENGLISH);
+        switch(osArch) {
+            case "amd64":
+            case "x86_64":
+                return "x86_64";
+            case "x86":
+            case "i386":
+            case "i686":
+                return "x86";
+            case "arm64":
+                return "aarch64";
+            default:
+                return osArch;
+        }
+    }
+
+    private static ZipEntry findFirstEntry(ZipFile zipFile, List<String> candidates) {
+        return candidates.stream().map(zipFile::getEntry).filter(entry -> entry != null).findFirst().orElse(null);
+    }
+
+    private String extractEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+        String fileName = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+        Path targetFile = targetFolder.toPath().resolve(fileName);
+        if( Files.isRegularFile(targetFile) && Files.size(targetFile) == entry.getSize() && calculateCrc(targetFile) == entry.getCrc() ){
+            logger.debug(String.format("Native library %s is up to date", targetFile.toAbsolutePath()));
+            return fileName;
+        }
+        logger.info(String.format("Extracting native library %s from %s", entry.getName(), new File(zipFile.getName()).getName()));
+        Files.createDirectories(targetFolder.toPath());
+        Path temporaryFile = Files.createTempFile(targetFolder.toPath(), fileName, ".tmp");
+        try{
+            try(InputStream entryStream = zipFile.getInputStream(entry)){
+                Files.copy(entryStream, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temporaryFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally{
+            Files.deleteIfExists(temporaryFile);
+        }
+        return fileName;
+    }
+
+    private static long calculateCrc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8 * 1024];
+        try(InputStream fileStream = Files.newInputStream(file)){
+            int read;
+            while( (read = fileStream.read(buffer)) != -1 ){
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Detects native libraries built for other operating systems than the target platform. Libraries like JNA,
+ * sqlite-jdbc or LWJGL are shipping native binaries for every operating system, either inside their jar-files
+ * (e.g. <code>com/sun/jna/win32-x86-64/jnidispatch.dll</code>) or as separate artifacts having some classifier
+ * (e.g. <code>natives-windows</code>). The operating system is detected by well-known names inside the path or
+ * classifier, and by the file extension of the native library.
+ */
+public class NativeLibraryFilter {
+
+    public static final String PLATFORM_AUTO = "auto";
+    public static final String PLATFORM_NONE = "none";
+    public static final String PLATFORM_LINUX = "linux";
+    public static final String PLATFORM_WINDOWS = "windows";
+    public static final String PLATFORM_MAC = "mac";
+    public static final List<String> SUPPORTED_PLATFORMS = Collections.unmodifiableList(Arrays.asList(PLATFORM_AUTO, PLATFORM_NONE, PLATFORM_LINUX, PLATFORM_WINDOWS, PLATFORM_MAC));
+
+    /**
+     * used for all operating systems never being some target of the native bundlers
+     */
+    private static final String PLATFORM_OTHER = "other";
+
+    private static final Map<String, String> PLATFORM_TOKENS = new HashMap<>();
+    private static final Map<String, String> PLATFORM_EXTENSIONS = new HashMap<>();
+
+    static {
+        Arrays.asList("linux").forEach(token -> PLATFORM_TOKENS.put(token, PLATFORM_LINUX));
+        Arrays.asList("windows", "win", "win32", "win64", "mingw").forEach(token -> PLATFORM_TOKENS.put(token, PLATFORM_WINDOWS));
+        Arrays.asList("mac", "macos", "macosx", "osx", "darwin").forEach(token -> PLATFORM_TOKENS.put(token, PLATFORM_MAC));
+        Arrays.asList("freebsd", "openbsd", "netbsd", "dragonflybsd", "sunos", "solaris", "aix", "android").forEach(token -> PLATFORM_TOKENS.put(token, PLATFORM_OTHER));
+
+        PLATFORM_EXTENSIONS.put("dll", PLATFORM_WINDOWS);
+        PLATFORM_EXTENSIONS.put("dylib", PLATFORM_MAC);
+        PLATFORM_EXTENSIONS.put("jnilib", PLATFORM_MAC);
+        // shared objects are used by all unix-like systems, only the path tells which one
+        PLATFORM_EXTENSIONS.put("so", null);
+    }
+
+    private final String platform;
+
+    /**
+     * @param platform one of linux, windows or mac
+     */
+    public NativeLibraryFilter(String platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * @param configuredPlatform value of the configuration (auto, none, linux, windows or mac)
+     * @return the filter for that platform, or null when nothing has to be filtered
+     */
+    public static NativeLibraryFilter forPlatform(String configuredPlatform) {
+        String targetPlatform = configuredPlatform == null ? PLATFORM_NONE : configuredPlatform.trim().toLowerCase(Locale.ENGLISH);
+        if( PLATFORM_AUTO.equals(targetPlatform) ){
+            targetPlatform = detectHostPlatform();
+        }
+        if( targetPlatform == null || PLATFORM_NONE.equals(targetPlatform) ){
+            return null;
+        }
+        return new NativeLibraryFilter(targetPlatform);
+    }
+
+    public static boolean isSupportedPlatform(String configuredPlatform) {
+        return configuredPlatform == null || SUPPORTED_PLATFORMS.contains(configuredPlatform.trim().toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * The native bundlers are only able to create bundles for the system they are running on.
+     *
+     * @return the current platform, or null when running on some other system
+     */
+    public static String detectHostPlatform() {
+        String osName = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH);
+        if( osName.startsWith("windows") ){
+            return PLATFORM_WINDOWS;
+        }
+        if( osName.contains("os x") || osName.startsWith("mac") ){
+            return PLATFORM_MAC;
+        }
+        if( osName.startsWith("linux") ){
+            return PLATFORM_LINUX;
+        }
+        return null;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    /**
+     * @param classifier classifier of some artifact, might be null
+     * @return true, when the classifier names only other operating systems
+     */
+    public boolean isForeignClassifier(String classifier) {
+        if( classifier == null || classifier.trim().isEmpty() ){
+            return false;
+        }
+        String classifierPlatform = findPlatform(classifier);
+        return classifierPlatform != null && !platform.equals(classifierPlatform);
+    }
+
+    /**
+     * @param entryName name of some entry inside a jar-file
+     * @return true, when that entry is a native library of other operating systems
+     */
+    public boolean isForeignEntry(String entryName) {
+        int extensionIndex = entryName.lastIndexOf('.');
+        if( extensionIndex < 0 || entryName.endsWith("/") ){
+            return false;
+        }
+        String extension = entryName.substring(extensionIndex + 1).toLowerCase(Locale.ENGLISH);
+        if( !PLATFORM_EXTENSIONS.containsKey(extension) ){
+            return false;
+        }
+        String entryPlatform = findPlatform(entryName.substring(0, extensionIndex));
+        if( entryPlatform == null ){
+            entryPlatform = PLATFORM_EXTENSIONS.get(extension);
+        }
+        return entryPlatform != null && !platform.equals(entryPlatform);
+    }
+
+    /**
+     * @return the platform of the first well-known operating system name, or null when not having any
+     */
+    private static String findPlatform(String value) {
+        for( String token : value.toLowerCase(Locale.ENGLISH).split("[-_./\\s]+") ){
+            String tokenPlatform = PLATFORM_TOKENS.get(token);
+            if( tokenPlatform != null ){
+                return tokenPlatform;
+            }
+        }
+        return null;
+    }
+}
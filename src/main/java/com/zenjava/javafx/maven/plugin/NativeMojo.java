@@ -19,7 +19,6 @@ import com.oracle.tools.packager.AbstractBundler;
 import com.oracle.tools.packager.Bundler;
 import com.oracle.tools.packager.Bundlers;
 import com.oracle.tools.packager.ConfigException;
-import com.oracle.tools.packager.RelativeFileSet;
 import com.oracle.tools.packager.StandardBundlerParam;
 import com.oracle.tools.packager.UnsupportedPlatformException;
 import com.sun.javafx.tools.packager.PackagerException;
@@ -32,17 +31,25 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.jar.JarFile;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @goal build-native
@@ -173,6 +180,74 @@ public class NativeMojo extends AbstractJfxToolsMojo {
      */
     protected boolean needMenu;
 
+    /**
+     * Set this to true for bundling some minimal Java runtime instead of the whole JRE. All modules required by the
+     * JavaFX JAR and its dependencies are detected using "jdeps", and the runtime is created using "jlink". Both
+     * results are cached until the jar-files change. This requires Java 9 or newer, and is skipped when having
+     * "runtime" set inside bundleArguments.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.createCustomRuntime" default-value="false"
+     */
+    protected boolean createCustomRuntime = false;
+
+    /**
+     * Modules which can not be detected by "jdeps" (e.g. only used via reflection or as service provider, like
+     * "jdk.crypto.ec" or "jdk.localedata") can be added to the custom runtime by listing them here.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.customRuntimeModules"
+     */
+    protected List<String> customRuntimeModules;
+
+    /**
+     * Per default all bundlers are running one after another. Set this to the amount of installer-bundlers (like
+     * "deb" and "rpm") to run at the same time, or set this to 0 for using all available processors. All
+     * image-bundlers (like "linux.app") and the JNLP-bundler are still running one after another before, as the
+     * installers might depend on their results. Every installer-bundler running in parallel gets its own folders
+     * for building (BUILD_ROOT and IMAGES_ROOT).
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.nativeBundlerThreads" default-value="1"
+     */
+    protected int nativeBundlerThreads = 1;
+
+    /**
+     * Set this to true for caching the bundles created by all bundlers. When some bundler gets the same parameters,
+     * the same application resources, the same runtime and the same additionalBundlerResources as in some previous
+     * build (compared by their contents, using the same Java version on the same operating system), the bundle gets
+     * restored from cache instead of running that bundler again. All workarounds are still applied after restoring.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.cacheNativeBundles" default-value="false"
+     */
+    protected boolean cacheNativeBundles = false;
+
+    /**
+     * Folder containing all cached bundles when having cacheNativeBundles enabled. Place this outside of the
+     * build-folder for keeping the cached bundles when calling 'mvn clean'. For sharing bundles with other
+     * workspaces, please see sharedCacheDir.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.nativeBundleCacheDir" default-value="${project.build.directory}/jfx/bundle-cache"
+     */
+    protected File nativeBundleCacheDir;
+
+    /**
+     * Maximum size of the nativeBundleCacheDir in megabytes, when exceeded the least recently used bundles get
+     * removed. Set this to 0 for having no limit.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.nativeBundleCacheMaxSize" default-value="2048"
+     */
+    protected long nativeBundleCacheMaxSize = 2048;
+
     /**
      * A list of bundler arguments. The particular keys and the meaning of their values are dependent on the bundler
      * that is reading the arguments. Any argument not recognized by a bundler is silently ignored, so that arguments
@@ -430,12 +505,22 @@ public class NativeMojo extends AbstractJfxToolsMojo {
     /**
      * Set this to true, to not scan for the specified main class inside the generated/copied jar-files.
      * <p>
-     * Check only works for the main launcher, any secondary launchers are not checked.
+     * Checks the main class of the main launcher, the main classes of all secondary launchers and the pre-loader.
+     * All classes of the jar-files are indexed once, that index is cached by the checksum of each jar-file.
      *
      * @parameter property="jfx.skipMainClassScanning"
      */
     protected boolean skipMainClassScanning = false;
 
+    /**
+     * The pre-loader of your application (same as used for the JavaFX JAR), only used for checking it being part of
+     * the generated/copied jar-files.
+     *
+     * @parameter property="jfx.preLoader"
+     * @since 8.9.0
+     */
+    protected String preLoader;
+
     /**
      * Set this to true to disable the file-existence check on the keystore.
      *
@@ -452,6 +537,18 @@ public class NativeMojo extends AbstractJfxToolsMojo {
 
     protected Workarounds workarounds = null;
 
+    private BundleCache bundleCache = null;
+
+    private ChecksumIndex bundlerInputChecksums = null;
+
+    private static final String BUNDLE_TYPE_INSTALLER = "INSTALLER";
+
+    // temporary folders and logging are not affecting the created bundle
+    private static final List<String> BUNDLE_CACHE_IGNORED_PARAMS = Arrays.asList(StandardBundlerParam.BUILD_ROOT.getID(), AbstractBundler.IMAGES_ROOT.getID(), StandardBundlerParam.VERBOSE.getID());
+
+    private static final String CUSTOM_RUNTIME_KEY = "runtime";
+    private static final String CUSTOM_RUNTIME_MODULES_KEY = "add-modules";
+
     private static final String CFG_WORKAROUND_MARKER = "cfgWorkaroundMarker";
     private static final String CFG_WORKAROUND_DONE_MARKER = CFG_WORKAROUND_MARKER + ".done";
 
@@ -492,9 +589,13 @@ public class NativeMojo extends AbstractJfxToolsMojo {
             params.put(StandardBundlerParam.MENU_HINT.getID(), needMenu);
             params.put(StandardBundlerParam.MAIN_CLASS.getID(), mainClass);
 
-            Optional.ofNullable(jvmProperties).ifPresent(jvmProps -> {
-                params.put(StandardBundlerParam.JVM_PROPERTIES.getID(), new HashMap<>(jvmProps));
-            });
+            // native libraries extracted by JarMojo, configured properties are taking precedence
+            Map<String, String> nativeLibraryProperties = getNativeLibraryProperties();
+            if( jvmProperties != null || !nativeLibraryProperties.isEmpty() ){
+                Map<String, String> jvmProps = new HashMap<>(nativeLibraryProperties);
+                Optional.ofNullable(jvmProperties).ifPresent(jvmProps::putAll);
+                params.put(StandardBundlerParam.JVM_PROPERTIES.getID(), jvmProps);
+            }
             Optional.ofNullable(jvmArgs).ifPresent(jvmOptions -> {
                 params.put(StandardBundlerParam.JVM_OPTIONS.getID(), new ArrayList<>(jvmOptions));
             });
@@ -518,20 +619,14 @@ public class NativeMojo extends AbstractJfxToolsMojo {
             });
 
             // gather all files for our application bundle
-            Set<File> resourceFiles = new HashSet<>();
+            AppResourceIndex appResourceIndex;
             try{
-                Files.walk(jfxAppOutputDir.toPath())
-                        .map(p -> p.toFile())
-                        .filter(File::isFile)
-                        .filter(File::canRead)
-                        .forEach(f -> {
-                            getLog().info(String.format("Add %s file to application resources.", f));
-                            resourceFiles.add(f);
-                        });
+                appResourceIndex = AppResourceIndex.scan(jfxAppOutputDir);
             } catch(IOException e){
-                getLog().warn(e);
+                throw new MojoExecutionException("Unable to collect application resources", e);
             }
-            params.put(StandardBundlerParam.APP_RESOURCES.getID(), new RelativeFileSet(jfxAppOutputDir, resourceFiles));
+            getLog().debug(String.format("Added %s files (%s bytes) to application resources.", appResourceIndex.getFileCount(), appResourceIndex.getTotalSize()));
+            params.put(StandardBundlerParam.APP_RESOURCES.getID(), appResourceIndex.toRelativeFileSet());
 
             // check for misconfiguration
             Collection<String> duplicateKeys = new HashSet<>();
@@ -545,12 +640,12 @@ public class NativeMojo extends AbstractJfxToolsMojo {
                 throw new MojoExecutionException("The following keys in <bundleArguments> duplicate other settings, please remove one or the other: " + duplicateKeys.toString());
             }
 
+            if( createCustomRuntime ){
+                prepareCustomRuntime(params);
+            }
+
             if( !skipMainClassScanning ){
-                boolean mainClassInsideResourceJarFile = resourceFiles.stream().filter(resourceFile -> resourceFile.toString().endsWith(".jar")).filter(resourceJarFile -> isClassInsideJarFile(mainClass, resourceJarFile)).findFirst().isPresent();
-                if( !mainClassInsideResourceJarFile ){
-                    // warn user about missing class-file
-                    getLog().warn(String.format("Class with name %s was not found inside provided jar files!! JavaFX-application might not be working !!", mainClass));
-                }
+                checkLauncherClasses(appResourceIndex.getFiles(".jar"));
             }
 
             // check for secondary launcher misconfiguration (their appName requires to be different as this would overwrite primary launcher)
@@ -584,8 +679,11 @@ public class NativeMojo extends AbstractJfxToolsMojo {
                         Optional.ofNullable(launcher.getJvmArgs()).ifPresent(jvmOptions -> {
                             secondaryLauncher.put(StandardBundlerParam.JVM_OPTIONS.getID(), new ArrayList<>(jvmOptions));
                         });
-                        Optional.ofNullable(launcher.getJvmProperties()).ifPresent(jvmProps -> {
-                            secondaryLauncher.put(StandardBundlerParam.JVM_PROPERTIES.getID(), new HashMap<>(jvmProps));
+                        // launchers without own jvmProperties are inheriting them from the primary launcher (including the native library properties)
+                        Optional.ofNullable(launcher.getJvmProperties()).ifPresent(launcherJvmProps -> {
+                            Map<String, String> jvmProps = new HashMap<>(nativeLibraryProperties);
+                            jvmProps.putAll(launcherJvmProps);
+                            secondaryLauncher.put(StandardBundlerParam.JVM_PROPERTIES.getID(), jvmProps);
                         });
                         Optional.ofNullable(launcher.getUserJvmArgs()).ifPresent(userJvmOptions -> {
                             secondaryLauncher.put(StandardBundlerParam.USER_JVM_OPTIONS.getID(), new HashMap<>(userJvmOptions));
@@ -674,6 +772,13 @@ public class NativeMojo extends AbstractJfxToolsMojo {
                 throw new MojoExecutionException("There were no bundlers registered. Please make sure to add your custom bundlers as dependency to the plugin.");
             }
 
+            if( cacheNativeBundles ){
+                bundlerInputChecksums = ChecksumIndex.load(new File(jfxStateDir, "bundle-checksums.index"), getLog());
+                bundleCache = new BundleCache(nativeBundleCacheDir, nativeBundleCacheMaxSize * 1024 * 1024, bundlerInputChecksums, getSharedCache(), pluginVersion, getLog());
+            }
+
+            int bundlerThreads = nativeBundlerThreads <= 0 ? Runtime.getRuntime().availableProcessors() : nativeBundlerThreads;
+            List<Bundler> parallelBundlers = new ArrayList<>();
             for( Bundler b : bundlers.getBundlers() ){
                 String currentRunningBundlerID = b.getID();
                 // sometimes we need to run this bundler, so do special check
@@ -682,64 +787,215 @@ public class NativeMojo extends AbstractJfxToolsMojo {
                 }
 
                 foundBundler = true;
+                // installers are depending on the images, so these have to run before
+                if( bundlerThreads > 1 && BUNDLE_TYPE_INSTALLER.equalsIgnoreCase(b.getBundleType()) ){
+                    parallelBundlers.add(b);
+                    continue;
+                }
+                runBundler(b, params, new HashMap<>(params));
+            }
+            if( !parallelBundlers.isEmpty() ){
+                runBundlersInParallel(parallelBundlers, params, bundlerThreads);
+            }
+            if( bundlerInputChecksums != null ){
                 try{
-                    if( workarounds.isWorkaroundForNativeMacBundlerNeeded(additionalBundlerResources) ){
-                        if( !skipMacBundlerWorkaround ){
-                            b = workarounds.applyWorkaroundForNativeMacBundler(b, currentRunningBundlerID, params, additionalBundlerResources);
-                        } else {
-                            getLog().info("Skipping replacement of the 'mac.app'-bundler. Please make sure you know what you are doing!");
-                        }
+                    bundlerInputChecksums.save();
+                } catch(IOException ex){
+                    getLog().warn("Couldn't store checksums of bundler inputs", ex);
+                }
+            }
+            if( !foundBundler ){
+                if( failOnError ){
+                    throw new MojoExecutionException("No bundler found for given id " + bundler + ". Please check your configuration.");
+                }
+                getLog().warn("No bundler found for given id " + bundler + ". Please check your configuration.");
+            }
+        } catch(RuntimeException e){
+            throw new MojoExecutionException("An error occurred while generating native deployment bundles", e);
+        } catch(PackagerException ex){
+            throw new MojoExecutionException("An error occurred while generating native deployment bundles", ex);
+        }
+    }
+
+    private void runBundler(Bundler b, Map<String, ? super Object> params, Map<String, ? super Object> paramsToBundleWith) throws PackagerException, MojoFailureException, MojoExecutionException {
+        String currentRunningBundlerID = b.getID();
+        try{
+            if( workarounds.isWorkaroundForNativeMacBundlerNeeded(additionalBundlerResources) ){
+                if( !skipMacBundlerWorkaround ){
+                    b = workarounds.applyWorkaroundForNativeMacBundler(b, currentRunningBundlerID, params, additionalBundlerResources);
+                } else {
+                    getLog().info("Skipping replacement of the 'mac.app'-bundler. Please make sure you know what you are doing!");
+                }
+            }
+
+            if( b.validate(paramsToBundleWith) ){
+
+                doPrepareBeforeBundling(currentRunningBundlerID, paramsToBundleWith);
+
+                // "jnlp bundler doesn't produce jnlp file and doesn't log any error/warning"
+                // https://github.com/FibreFoX/javafx-gradle-plugin/issues/42
+                // the new jnlp-bundler does not work like other bundlers, you have to provide some bundleArguments-entry :(
+                if( "jnlp".equals(currentRunningBundlerID) && !paramsToBundleWith.containsKey("jnlp.outfile") ){
+                    // do fail if JNLP-bundler has to run
+                    // https://github.com/javafx-maven-plugin/javafx-maven-plugin/issues/238
+                    if( failOnError ){
+                        throw new MojoExecutionException("You missed to specify some bundleArguments-entry, please set 'jnlp.outfile', e.g. using appName.");
+                    } else {
+                        getLog().warn("You missed to specify some bundleArguments-entry, please set 'jnlp.outfile', e.g. using appName.");
+                        return;
                     }
+                }
 
-                    Map<String, ? super Object> paramsToBundleWith = new HashMap<>(params);
+                // DO BUNDLE HERE ;) and don't get confused about all the other stuff
+                if( bundleCache == null ){
+                    b.execute(paramsToBundleWith, nativeOutputDir);
+                } else {
+                    executeCached(b, paramsToBundleWith);
+                }
 
-                    if( b.validate(paramsToBundleWith) ){
+                applyWorkaroundsAfterBundling(currentRunningBundlerID, params);
+            }
+        } catch(UnsupportedPlatformException e){
+            // quietly ignored
+        } catch(ConfigException e){
+            if( failOnError ){
+                throw new MojoExecutionException("Skipping '" + b.getName() + "' because of configuration error '" + e.getMessage() + "'\nAdvice to fix: " + e.getAdvice());
+            } else {
+                getLog().info("Skipping '" + b.getName() + "' because of configuration error '" + e.getMessage() + "'\nAdvice to fix: " + e.getAdvice());
+            }
 
-                        doPrepareBeforeBundling(currentRunningBundlerID, paramsToBundleWith);
+        }
+    }
 
-                        // "jnlp bundler doesn't produce jnlp file and doesn't log any error/warning"
-                        // https://github.com/FibreFoX/javafx-gradle-plugin/issues/42
-                        // the new jnlp-bundler does not work like other bundlers, you have to provide some bundleArguments-entry :(
-                        if( "jnlp".equals(currentRunningBundlerID) && !paramsToBundleWith.containsKey("jnlp.outfile") ){
-                            // do fail if JNLP-bundler has to run
-                            // https://github.com/javafx-maven-plugin/javafx-maven-plugin/issues/238
-                            if( failOnError ){
-                                throw new MojoExecutionException("You missed to specify some bundleArguments-entry, please set 'jnlp.outfile', e.g. using appName.");
-                            } else {
-                                getLog().warn("You missed to specify some bundleArguments-entry, please set 'jnlp.outfile', e.g. using appName.");
-                                continue;
-                            }
-                        }
+    /**
+     * Restores the bundle from cache when the bundler gets the same inputs as some previous build. Otherwise the
+     * bundler writes into its own folder, which gets stored inside the cache before being moved into the
+     * output-folder.
+     */
+    private File executeCached(Bundler b, Map<String, ? super Object> paramsToBundleWith) throws MojoExecutionException {
+        String bundlerID = b.getID();
+        String cacheKey;
+        try{
+            cacheKey = bundleCache.createKey(bundlerID + ";" + b.getClass().getName(), paramsToBundleWith, BUNDLE_CACHE_IGNORED_PARAMS, additionalBundlerResources);
+        } catch(IOException ex){
+            getLog().warn(String.format("Couldn't create cache key for bundler %s, running it without cache.", bundlerID), ex);
+            return b.execute(paramsToBundleWith, nativeOutputDir);
+        }
+        if( bundleCache.contains(cacheKey) ){
+            try{
+                File restoredBundle = bundleCache.restore(cacheKey, nativeOutputDir);
+                getLog().info(String.format("Restored bundle of bundler %s from cache", bundlerID));
+                return restoredBundle;
+            } catch(IOException ex){
+                getLog().warn(String.format("Couldn't restore bundle of bundler %s from cache, running it again.", bundlerID), ex);
+            }
+        }
 
-                        // DO BUNDLE HERE ;) and don't get confused about all the other stuff
-                        b.execute(paramsToBundleWith, nativeOutputDir);
+        File bundlerOutputDir = new File(new File(jfxStateDir, "bundler-output"), bundlerID);
+        try{
+            FileTools.deleteRecursive(bundlerOutputDir.toPath());
+            Files.createDirectories(bundlerOutputDir.toPath());
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to create output folder for bundler " + bundlerID, ex);
+        }
+        File bundleResult = b.execute(paramsToBundleWith, bundlerOutputDir);
+        if( bundleResult != null ){
+            bundleCache.store(cacheKey, bundlerOutputDir, bundleResult);
+        }
+        try{
+            return BundleCache.moveOutput(bundlerOutputDir, nativeOutputDir, bundleResult);
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to move bundle of bundler " + bundlerID + " into " + nativeOutputDir.getAbsolutePath(), ex);
+        }
+    }
 
-                        applyWorkaroundsAfterBundling(currentRunningBundlerID, params);
-                    }
-                } catch(UnsupportedPlatformException e){
-                    // quietly ignored
-                } catch(ConfigException e){
-                    if( failOnError ){
-                        throw new MojoExecutionException("Skipping '" + b.getName() + "' because of configuration error '" + e.getMessage() + "'\nAdvice to fix: " + e.getAdvice());
+    /**
+     * Runs all bundlers at the same time, each one using its own copy of the parameters and its own folders for
+     * building. The first failure is thrown after all bundlers have finished.
+     */
+    private void runBundlersInParallel(List<Bundler> parallelBundlers, Map<String, ? super Object> params, int bundlerThreads) throws PackagerException, MojoFailureException, MojoExecutionException {
+        getLog().info(String.format("Running %s bundlers using %s threads", parallelBundlers.size(), Math.min(bundlerThreads, parallelBundlers.size())));
+        List<Path> temporaryBuildRoots = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService bundlerExecutor = Executors.newFixedThreadPool(Math.min(bundlerThreads, parallelBundlers.size()));
+        try{
+            List<Future<Void>> bundlerResults = new ArrayList<>();
+            for( Bundler b : parallelBundlers ){
+                Map<String, ? super Object> paramsToBundleWith = new HashMap<>(params);
+                prepareIsolatedBuildRoot(b.getID(), paramsToBundleWith, temporaryBuildRoots);
+                bundlerResults.add(bundlerExecutor.submit(() -> {
+                    runBundler(b, params, paramsToBundleWith);
+                    return null;
+                }));
+            }
+            Exception firstFailure = null;
+            for( Future<Void> bundlerResult : bundlerResults ){
+                try{
+                    bundlerResult.get();
+                } catch(ExecutionException ex){
+                    if( firstFailure == null && ex.getCause() instanceof Exception ){
+                        firstFailure = (Exception) ex.getCause();
                     } else {
-                        getLog().info("Skipping '" + b.getName() + "' because of configuration error '" + e.getMessage() + "'\nAdvice to fix: " + e.getAdvice());
+                        getLog().error("Another bundler failed too", ex.getCause());
                     }
-
                 }
             }
-            if( !foundBundler ){
-                if( failOnError ){
-                    throw new MojoExecutionException("No bundler found for given id " + bundler + ". Please check your configuration.");
+            if( firstFailure instanceof MojoExecutionException ){
+                throw (MojoExecutionException) firstFailure;
+            }
+            if( firstFailure instanceof MojoFailureException ){
+                throw (MojoFailureException) firstFailure;
+            }
+            if( firstFailure instanceof PackagerException ){
+                throw (PackagerException) firstFailure;
+            }
+            if( firstFailure != null ){
+                throw new MojoExecutionException("An error occurred while generating native deployment bundles", firstFailure);
+            }
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while generating native deployment bundles", ex);
+        } finally{
+            bundlerExecutor.shutdownNow();
+            if( !verbose ){
+                for( Path temporaryBuildRoot : temporaryBuildRoots ){
+                    try{
+                        FileTools.deleteRecursive(temporaryBuildRoot);
+                    } catch(IOException ex){
+                        getLog().debug("Couldn't remove temporary build folder " + temporaryBuildRoot, ex);
+                    }
                 }
-                getLog().warn("No bundler found for given id " + bundler + ". Please check your configuration.");
             }
-        } catch(RuntimeException e){
-            throw new MojoExecutionException("An error occurred while generating native deployment bundles", e);
-        } catch(PackagerException ex){
-            throw new MojoExecutionException("An error occurred while generating native deployment bundles", ex);
         }
     }
 
+    /**
+     * Bundlers running at the same time would otherwise share the same folders, removing each others files.
+     * Configured folders get some subfolder per bundler.
+     */
+    private void prepareIsolatedBuildRoot(String bundlerID, Map<String, ? super Object> paramsToBundleWith, List<Path> temporaryBuildRoots) throws MojoExecutionException {
+        String buildRootID = StandardBundlerParam.BUILD_ROOT.getID();
+        String imagesRootID = AbstractBundler.IMAGES_ROOT.getID();
+        File buildRoot;
+        if( paramsToBundleWith.get(buildRootID) != null ){
+            buildRoot = new File(String.valueOf(paramsToBundleWith.get(buildRootID)), bundlerID);
+        } else {
+            try{
+                Path temporaryBuildRoot = Files.createTempDirectory("fxbundler-" + bundlerID);
+                temporaryBuildRoots.add(temporaryBuildRoot);
+                buildRoot = temporaryBuildRoot.toFile();
+            } catch(IOException ex){
+                throw new MojoExecutionException("Unable to create build folder for bundler " + bundlerID, ex);
+            }
+        }
+        paramsToBundleWith.put(buildRootID, buildRoot);
+        if( paramsToBundleWith.get(imagesRootID) != null ){
+            paramsToBundleWith.put(imagesRootID, new File(String.valueOf(paramsToBundleWith.get(imagesRootID)), bundlerID));
+        } else {
+            paramsToBundleWith.put(imagesRootID, new File(buildRoot, "images"));
+        }
+        getLog().debug(String.format("Using build folder %s for bundler %s", buildRoot.getAbsolutePath(), bundlerID));
+    }
+
     private void applyWorkaroundsAfterBundling(String currentRunningBundlerID, Map<String, ? super Object> params) throws PackagerException, MojoFailureException, MojoExecutionException {
 
         // Workaround for "Native package for Ubuntu doesn't work"
@@ -971,6 +1227,49 @@ public class NativeMojo extends AbstractJfxToolsMojo {
         return runBundler;
     }
 
+    private void prepareCustomRuntime(Map<String, ? super Object> params) throws MojoExecutionException {
+        if( params.containsKey(CUSTOM_RUNTIME_KEY) ){
+            getLog().info("Skipped creating custom runtime, because <runtime> is set inside <bundleArguments>.");
+            return;
+        }
+        if( JavaDetectionTools.IS_JAVA_8 ){
+            getLog().warn("Skipped creating custom runtime. Please use at least Java 9 for using this feature.");
+            return;
+        }
+
+        List<File> jarFiles = new ArrayList<>();
+        jarFiles.add(new File(jfxAppOutputDir, jfxMainAppJarName));
+        File libDir = new File(jfxAppOutputDir, libFolderName);
+        try{
+            if( libDir.isDirectory() ){
+                try(Stream<Path> walkstream = Files.walk(libDir.toPath())){
+                    walkstream.filter(path -> path.toString().toLowerCase().endsWith(".jar")).sorted().map(Path::toFile).forEach(jarFiles::add);
+                }
+            }
+            RuntimeImageBuilder runtimeImageBuilder = new RuntimeImageBuilder(getEnvironmentRelativeExecutablePath(), jfxStateDir, getLog(), verbose);
+            Set<String> modules = runtimeImageBuilder.detectModules(jarFiles);
+            Optional.ofNullable(customRuntimeModules).ifPresent(modules::addAll);
+            File runtimeDir = runtimeImageBuilder.createRuntime(modules);
+            // the bundlers of Java 9 are creating the runtime themselves, so they get the list of modules too
+            params.put(CUSTOM_RUNTIME_KEY, runtimeDir.getAbsolutePath());
+            params.put(CUSTOM_RUNTIME_MODULES_KEY, String.join(",", modules));
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to create custom runtime", ex);
+        }
+    }
+
+    private Map<String, String> getNativeLibraryProperties() throws MojoExecutionException {
+        try{
+            Map<String, String> nativeLibraryProperties = NativeLibraryExtractor.loadProperties(new File(jfxStateDir, NativeLibraryExtractor.PROPERTIES_FILE_NAME));
+            if( !nativeLibraryProperties.isEmpty() ){
+                getLog().info("Adding system properties for extracted native libraries to native launchers");
+            }
+            return nativeLibraryProperties;
+        } catch(IOException ex){
+            throw new MojoExecutionException("Unable to read system properties for extracted native libraries", ex);
+        }
+    }
+
     private void addToMapWhenNotNull(Object value, String key, Map<String, Object> map) {
         if( value == null ){
             return;
@@ -1095,16 +1394,25 @@ public class NativeMojo extends AbstractJfxToolsMojo {
         }
     }
 
-    private boolean isClassInsideJarFile(String classname, File jarFile) {
-        String requestedJarEntryName = classname.replace(".", "/") + ".class";
+    private void checkLauncherClasses(List<File> jarFiles) {
+        Set<String> requiredClasses = new LinkedHashSet<>();
+        requiredClasses.add(mainClass);
+        Optional.ofNullable(secondaryLaunchers).ifPresent(launchers -> {
+            launchers.stream().map(NativeLauncher::getMainClass).filter(Objects::nonNull).forEach(requiredClasses::add);
+        });
+        Optional.ofNullable(preLoader).ifPresent(requiredClasses::add);
+
+        ClasspathEntryIndex classpathIndex = ClasspathEntryIndex.load(new File(jfxStateDir, "classpath-index"), getLog());
+        classpathIndex.addJars(jarFiles);
+        getLog().debug(String.format("Indexed %s classes of %s jar files.", classpathIndex.getClassCount(), jarFiles.size()));
+        requiredClasses.stream().filter(requiredClass -> !classpathIndex.containsClass(requiredClass)).forEach(missingClass -> {
+            // warn user about missing class-file
+            getLog().warn(String.format("Class with name %s was not found inside provided jar files!! JavaFX-application might not be working !!", missingClass));
+        });
         try{
-            JarFile jarFileToSearchIn = new JarFile(jarFile, false, JarFile.OPEN_READ);
-            return jarFileToSearchIn.stream().parallel().filter(jarEntry -> {
-                return jarEntry.getName().equals(requestedJarEntryName);
-            }).findAny().isPresent();
+            classpathIndex.save();
         } catch(IOException ex){
-            // NO-OP
+            getLog().warn("Couldn't store classpath index", ex);
         }
-        return false;
     }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only access to the raw (still compressed) entries of some jar-file, making it possible to copy them into
+ * another jar-file without inflating and deflating them again (see {@link RawJarWriter}).
+ * <p>
+ * Only the central directory gets read when opening the file. ZIP64-files (more than 65535 entries or bigger than
+ * 4GB) are not supported, a ZipException is thrown for them, making it possible to fall back to the regular way.
+ */
+public class RawJarFile implements Closeable {
+
+    static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int CENTRAL_HEADER_SIZE = 46;
+    static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    static final int CENTRAL_HEADER_LOCAL_OFFSET_POSITION = 42;
+
+    static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+    private static final int ZIP64_ENTRIES_MARKER = 0xFFFF;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+
+    private RawJarFile(Path path, FileChannel channel, List<Entry> entries) {
+        this.path = path;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    public static RawJarFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try{
+            return new RawJarFile(path, channel, readCentralDirectory(path, channel));
+        } catch(IOException | RuntimeException ex){
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return all entries in the order of the central directory
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Calculates the amount of bytes used by the entry inside this file, including the local header and the
+     * optional data descriptor.
+     */
+    long getRawLength(Entry entry) throws IOException {
+        ByteBuffer localHeader = readFully(channel, entry.getLocalHeaderOffset(), LOCAL_HEADER_SIZE);
+        if( localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE ){
+            throw new ZipException("Invalid local header for entry " + entry.getName() + " inside " + path);
+        }
+        int nameLength = Short.toUnsignedInt(localHeader.getShort(26));
+        int extraLength = Short.toUnsignedInt(localHeader.getShort(28));
+        long length = LOCAL_HEADER_SIZE + nameLength + extraLength + entry.getCompressedSize();
+        if( (entry.getFlags() & FLAG_DATA_DESCRIPTOR) != 0 ){
+            // the signature of the data descriptor is optional
+            ByteBuffer descriptorStart = readFully(channel, entry.getLocalHeaderOffset() + length, 4);
+            length += descriptorStart.getInt(0) == DATA_DESCRIPTOR_SIGNATURE ? 16 : 12;
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static List<Entry> readCentralDirectory(Path path, FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if( fileSize < END_OF_CENTRAL_DIRECTORY_SIZE ){
+            throw new ZipException("Not a jar-file: " + path);
+        }
+        // the end-of-central-directory record is at the end, followed by some optional comment (max 65535 bytes)
+        int searchLength = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF);
+        ByteBuffer tail = readFully(channel, fileSize - searchLength, searchLength);
+        int endOfCentralDirectory = -1;
+        for( int position = searchLength - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0; position-- ){
+            if( tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE ){
+                endOfCentralDirectory = position;
+                break;
+            }
+        }
+        if( endOfCentralDirectory < 0 ){
+            throw new ZipException("Not a jar-file: " + path);
+        }
+
+        int entryCount = Short.toUnsignedInt(tail.getShort(endOfCentralDirectory + 10));
+        long centralDirectorySize = Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 12));
+        long centralDirectoryOffset = Integer.toUnsignedLong(tail.getInt(endOfCentralDirectory + 16));
+        if( entryCount == ZIP64_ENTRIES_MARKER || centralDirectorySize == ZIP64_MARKER || centralDirectoryOffset == ZIP64_MARKER ){
+            throw new ZipException("ZIP64-files are not supported: " + path);
+        }
+
+        ByteBuffer centralDirectory = readFully(channel, centralDirectoryOffset, (int) centralDirectorySize);
+        List<Entry> entries = new ArrayList<>(entryCount);
+        int position = 0;
+        for( int i = 0; i < entryCount; i++ ){
+            if( centralDirectory.getInt(position) != CENTRAL_HEADER_SIGNATURE ){
+                throw new ZipException("Invalid central directory inside " + path);
+            }
+            int flags = Short.toUnsignedInt(centralDirectory.getShort(position + 8));
+            int method = Short.toUnsignedInt(centralDirectory.getShort(position + 10));
+            long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(centralDirectory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(centralDirectory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(centralDirectory.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(centralDirectory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(position + CENTRAL_HEADER_LOCAL_OFFSET_POSITION));
+            if( compressedSize == ZIP64_MARKER || size == ZIP64_MARKER || localHeaderOffset == ZIP64_MARKER ){
+                throw new ZipException("ZIP64-files are not supported: " + path);
+            }
+
+            int recordLength = CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+            byte[] centralRecord = new byte[recordLength];
+            centralDirectory.position(position);
+            centralDirectory.get(centralRecord);
+            String name = new String(centralRecord, CENTRAL_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+
+            entries.add(new Entry(name, flags, method, compressedSize, size, localHeaderOffset, centralRecord));
+            position += recordLength;
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while( buffer.hasRemaining() ){
+            int read = channel.read(buffer, position + buffer.position());
+            if( read < 0 ){
+                throw new ZipException("Unexpected end of jar-file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Single entry of some jar-file, containing the raw central directory record.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+        private final byte[] centralRecord;
+
+        Entry(String name, int flags, int method, long compressedSize, long size, long localHeaderOffset, byte[] centralRecord) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.centralRecord = centralRecord;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        long getLocalHeaderOffset() {
+            return localHeaderOffset;
+        }
+
+        byte[] getCentralRecord() {
+            return centralRecord;
+        }
+    }
+}
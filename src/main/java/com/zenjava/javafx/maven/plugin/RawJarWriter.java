@@ -0,0 +1,268 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes jar-files by combining raw entries of existing jar-files (see {@link RawJarFile}) with new entries.
+ * Copied entries are transferred byte-by-byte, so they never get inflated or deflated again, only the central
+ * directory gets created new. This makes it possible to replace single entries (like the manifest), to filter,
+ * reorder or merge entries of multiple jar-files at nearly the speed of copying a file.
+ * <p>
+ * Everything is written into some temporary file, which replaces the target-file when calling {@link #finish()}.
+ * When not finished (e.g. because of some exception), closing this writer removes the temporary file.
+ */
+public class RawJarWriter implements Closeable {
+
+    private static final int VERSION_NEEDED = 20;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final Path targetPath;
+    private final Path temporaryPath;
+    private final FileChannel channel;
+    private final int compressionLevel;
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private final Set<String> writtenEntries = new HashSet<>();
+    private long position = 0;
+    private boolean finished = false;
+
+    public RawJarWriter(Path targetPath, int compressionLevel) throws IOException {
+        this.targetPath = targetPath.toAbsolutePath();
+        this.compressionLevel = compressionLevel;
+        Files.createDirectories(this.targetPath.getParent());
+        this.temporaryPath = Files.createTempFile(this.targetPath.getParent(), this.targetPath.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * @param entryName
+     * @return true, when some entry with that name was already written
+     */
+    public boolean contains(String entryName) {
+        return writtenEntries.contains(entryName);
+    }
+
+    /**
+     * Adds some new entry. Already compressed content (like images) is stored without compressing it again.
+     *
+     * @param entryName
+     * @param content
+     * @param lastModified
+     * @return false, when some entry with that name was already written
+     * @throws IOException
+     */
+    public boolean addEntry(String entryName, byte[] content, long lastModified) throws IOException {
+        if( contains(entryName) ){
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        byte[] data = content;
+        int method = METHOD_STORED;
+        if( content.length > 0 && compressionLevel != Deflater.NO_COMPRESSION && !StreamingJarWriter.isAlreadyCompressed(entryName) ){
+            data = deflate(content);
+            method = METHOD_DEFLATED;
+        }
+
+        byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+        int dosTime = toDosTime(lastModified);
+        long localHeaderOffset = position;
+
+        ByteBuffer localHeader = createBuffer(RawJarFile.LOCAL_HEADER_SIZE + name.length);
+        localHeader.putInt(RawJarFile.LOCAL_HEADER_SIGNATURE);
+        localHeader.putShort((short) VERSION_NEEDED);
+        localHeader.putShort((short) FLAG_UTF8_NAMES);
+        localHeader.putShort((short) method);
+        localHeader.putInt(dosTime);
+        localHeader.putInt((int) crc.getValue());
+        localHeader.putInt(data.length);
+        localHeader.putInt(content.length);
+        localHeader.putShort((short) name.length);
+        localHeader.putShort((short) 0);
+        localHeader.put(name);
+        localHeader.flip();
+        write(localHeader);
+        write(ByteBuffer.wrap(data));
+
+        ByteBuffer centralHeader = createBuffer(RawJarFile.CENTRAL_HEADER_SIZE + name.length);
+        centralHeader.putInt(RawJarFile.CENTRAL_HEADER_SIGNATURE);
+        centralHeader.putShort((short) VERSION_NEEDED);
+        centralHeader.putShort((short) VERSION_NEEDED);
+        centralHeader.putShort((short) FLAG_UTF8_NAMES);
+        centralHeader.putShort((short) method);
+        centralHeader.putInt(dosTime);
+        centralHeader.putInt((int) crc.getValue());
+        centralHeader.putInt(data.length);
+        centralHeader.putInt(content.length);
+        centralHeader.putShort((short) name.length);
+        // extra field, comment, disk number, internal attributes
+        centralHeader.putShort((short) 0);
+        centralHeader.putShort((short) 0);
+        centralHeader.putShort((short) 0);
+        centralHeader.putShort((short) 0);
+        // external attributes
+        centralHeader.putInt(0);
+        centralHeader.putInt((int) localHeaderOffset);
+        centralHeader.put(name);
+        centralDirectory.write(centralHeader.array());
+
+        writtenEntries.add(entryName);
+        return true;
+    }
+
+    /**
+     * Copies the entry of the source jar-file without touching its compressed content.
+     *
+     * @param source
+     * @param entry
+     * @return false, when some entry with that name was already written
+     * @throws IOException
+     */
+    public boolean copyEntry(RawJarFile source, RawJarFile.Entry entry) throws IOException {
+        if( contains(entry.getName()) ){
+            return false;
+        }
+        long localHeaderOffset = position;
+        long rawLength = source.getRawLength(entry);
+        FileChannel sourceChannel = source.getChannel();
+        long transferred = 0;
+        while( transferred < rawLength ){
+            long count = sourceChannel.transferTo(entry.getLocalHeaderOffset() + transferred, rawLength - transferred, channel);
+            if( count <= 0 ){
+                throw new ZipException("Unexpected end of jar-file " + source.getPath());
+            }
+            transferred += count;
+        }
+        position += rawLength;
+        // make sure the channel-position matches, as transferTo doesn't guarantee to update it on all platforms
+        channel.position(position);
+        checkOffset();
+
+        byte[] centralRecord = entry.getCentralRecord().clone();
+        ByteBuffer.wrap(centralRecord).order(ByteOrder.LITTLE_ENDIAN).putInt(RawJarFile.CENTRAL_HEADER_LOCAL_OFFSET_POSITION, (int) localHeaderOffset);
+        centralDirectory.write(centralRecord);
+
+        writtenEntries.add(entry.getName());
+        return true;
+    }
+
+    /**
+     * Writes the central directory and replaces the target-file.
+     *
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if( writtenEntries.size() > MAX_ENTRIES ){
+            throw new ZipException("Too many entries, ZIP64-files are not supported: " + targetPath);
+        }
+        long centralDirectoryOffset = position;
+        write(ByteBuffer.wrap(centralDirectory.toByteArray()));
+
+        ByteBuffer endOfCentralDirectory = createBuffer(RawJarFile.END_OF_CENTRAL_DIRECTORY_SIZE);
+        endOfCentralDirectory.putInt(RawJarFile.END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        endOfCentralDirectory.putShort((short) 0);
+        endOfCentralDirectory.putShort((short) 0);
+        endOfCentralDirectory.putShort((short) writtenEntries.size());
+        endOfCentralDirectory.putShort((short) writtenEntries.size());
+        endOfCentralDirectory.putInt(centralDirectory.size());
+        endOfCentralDirectory.putInt((int) centralDirectoryOffset);
+        endOfCentralDirectory.putShort((short) 0);
+        endOfCentralDirectory.flip();
+        write(endOfCentralDirectory);
+
+        channel.close();
+        Files.move(temporaryPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( channel.isOpen() ){
+            channel.close();
+        }
+        if( !finished ){
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while( buffer.hasRemaining() ){
+            position += channel.write(buffer);
+        }
+        checkOffset();
+    }
+
+    private void checkOffset() throws ZipException {
+        if( position > MAX_OFFSET ){
+            throw new ZipException("Jar-file too big, ZIP64-files are not supported: " + targetPath);
+        }
+    }
+
+    private byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try{
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            byte[] buffer = new byte[8 * 1024];
+            while( !deflater.finished() ){
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+            return compressed.toByteArray();
+        } finally{
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer createBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int toDosTime(long time) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = dateTime.getYear();
+        if( year < 1980 ){
+            // earliest date possible inside jar-files
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | dateTime.getMonthValue() << 21 | dateTime.getDayOfMonth() << 16
+                | dateTime.getHour() << 11 | dateTime.getMinute() << 5 | dateTime.getSecond() >> 1;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Creates some minimal Java runtime for the application using "jdeps" (for detecting all required modules) and
+ * "jlink" (for creating the runtime containing only these modules). Both results are cached inside the state-folder,
+ * so they are only created again when the jar-files or the used JDK have changed.
+ * <p>
+ * This requires Java 9 or newer.
+ */
+public class RuntimeImageBuilder {
+
+    private static final Pattern MODULE_NAME_PATTERN = Pattern.compile("[a-zA-Z][\\w.]*");
+
+    private final String executablePath;
+    private final File stateDir;
+    private final Log logger;
+    private final boolean verbose;
+
+    /**
+     * @param executablePath path to the folder containing "jdeps" and "jlink", or empty when using the environment
+     * @param stateDir folder for caching results
+     * @param logger
+     * @param verbose
+     */
+    public RuntimeImageBuilder(String executablePath, File stateDir, Log logger, boolean verbose) {
+        this.executablePath = executablePath;
+        this.stateDir = stateDir;
+        this.logger = logger;
+        this.verbose = verbose;
+    }
+
+    /**
+     * Detects all modules of the JDK required by the given jar-files. The result is cached by the checksum of all
+     * given jar-files.
+     *
+     * @param jarFiles
+     * @return names of all required modules
+     * @throws IOException
+     */
+    public Set<String> detectModules(List<File> jarFiles) throws IOException {
+        BuildFingerprint fingerprint = new BuildFingerprint()
+                .add("java.home", System.getProperty("java.home"))
+                .add("java.version", System.getProperty("java.version"));
+        for( File jarFile : jarFiles ){
+            fingerprint.addFile("jar", jarFile);
+        }
+        String classpathFingerprint = fingerprint.toHexString();
+
+        File cacheFile = new File(stateDir, "jdeps.cache");
+        if( cacheFile.exists() ){
+            List<String> cachedResult = Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8);
+            if( cachedResult.size() == 2 && cachedResult.get(0).equals(classpathFingerprint) ){
+                logger.debug("Using cached module dependencies of classpath");
+                return new TreeSet<>(Arrays.asList(cachedResult.get(1).split(",")));
+            }
+        }
+
+        logger.info("Detecting required modules using jdeps");
+        String classpath = jarFiles.stream().map(File::getAbsolutePath).collect(Collectors.joining(File.pathSeparator));
+        List<String> command = new ArrayList<>();
+        command.add(executablePath + "jdeps");
+        command.add("--list-deps");
+        if( JavaDetectionTools.getJavaFeatureVersion() >= 12 ){
+            // newer versions refuse to list dependencies when having classes referencing missing ones
+            command.add("--ignore-missing-deps");
+        }
+        command.add("--multi-release");
+        command.add("base");
+        command.add("--class-path");
+        command.add(classpath);
+        jarFiles.stream().map(File::getAbsolutePath).forEach(command::add);
+
+        Set<String> modules = new TreeSet<>();
+        for( String line : runCommand(command).split("\\r?\\n") ){
+            // lines might contain qualified exports like "java.base/sun.security.util"
+            String moduleName = line.trim().split("/")[0];
+            if( MODULE_NAME_PATTERN.matcher(moduleName).matches() ){
+                modules.add(moduleName);
+            }
+        }
+        modules.add("java.base");
+
+        Files.createDirectories(stateDir.toPath());
+        Files.write(cacheFile.toPath(), Arrays.asList(classpathFingerprint, String.join(",", modules)), StandardCharsets.UTF_8);
+        return modules;
+    }
+
+    /**
+     * Creates the runtime, when not already existing for the same modules.
+     *
+     * @param modules
+     * @return folder of the created runtime
+     * @throws IOException
+     */
+    public File createRuntime(Collection<String> modules) throws IOException {
+        String modulesList = String.join(",", new TreeSet<>(modules));
+        File runtimeDir = new File(stateDir, "runtime");
+        File stateFile = new File(stateDir, "runtime.state");
+        // jlink always writes this file
+        File releaseFile = new File(runtimeDir, "release");
+        String fingerprint = new BuildFingerprint()
+                .add("java.home", System.getProperty("java.home"))
+                .add("java.version", System.getProperty("java.version"))
+                .add("modules", modulesList)
+                .toHexString();
+        if( BuildFingerprint.isUpToDate(stateFile, fingerprint, releaseFile) ){
+            logger.info("Custom runtime is up to date, skipping creation.");
+            return runtimeDir;
+        }
+
+        // jlink refuses to write into existing folders
+        FileTools.deleteRecursive(runtimeDir.toPath());
+        logger.info("Creating custom runtime using jlink with modules: " + modulesList);
+        List<String> command = new ArrayList<>();
+        command.add(executablePath + "jlink");
+        command.add("--add-modules");
+        command.add(modulesList);
+        command.add("--output");
+        command.add(runtimeDir.getAbsolutePath());
+        command.add("--strip-debug");
+        command.add("--no-header-files");
+        command.add("--no-man-pages");
+        runCommand(command);
+
+        BuildFingerprint.storeState(stateFile, fingerprint, releaseFile);
+        return runtimeDir;
+    }
+
+    private String runCommand(List<String> command) throws IOException {
+        if( verbose ){
+            logger.info("Running command: " + String.join(" ", command));
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try(InputStream processOutput = process.getInputStream()){
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while( (read = processOutput.read(buffer)) != -1 ){
+                output.write(buffer, 0, read);
+            }
+        }
+        try{
+            if( process.waitFor() != 0 ){
+                throw new IOException("Command " + command.get(0) + " failed: " + output.toString(StandardCharsets.UTF_8.name()));
+            }
+        } catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + command.get(0), ex);
+        }
+        return output.toString(StandardCharsets.UTF_8.name());
+    }
+}
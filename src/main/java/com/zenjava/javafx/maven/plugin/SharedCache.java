@@ -0,0 +1,237 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Cache being shared by multiple workspaces or build-machines (e.g. placed on some network share), containing
+ * created outputs by the key of their inputs. Every entry is written into some temporary folder first and gets
+ * visible to others by an atomic move, so readers never see incomplete entries.
+ * <p>
+ * Every access updates the timestamp of the entry, when the cache exceeds its maximum size, entries having the
+ * oldest timestamps get removed. Entries being accessed within the last minutes are never removed, as other builds
+ * might still be reading them.
+ */
+public class SharedCache {
+
+    private static final String CONTENT_NAME = "content";
+    private static final String DESCRIPTOR_FILE_NAME = "entry.properties";
+    private static final String LAST_ACCESS_FILE_NAME = "last-access";
+    private static final String SIZE_PROPERTY = "size";
+    private static final String TEMPORARY_PREFIX = ".tmp-";
+    private static final String TRASH_PREFIX = ".trash-";
+    private static final long EVICTION_GRACE_PERIOD = TimeUnit.MINUTES.toMillis(30);
+
+    private final File rootDir;
+    private final long maxSize;
+    private final Log logger;
+
+    /**
+     * @param rootDir
+     * @param maxSize maximum size of all entries in bytes, 0 for having no limit
+     * @param logger
+     */
+    public SharedCache(File rootDir, long maxSize, Log logger) {
+        this.rootDir = rootDir;
+        this.maxSize = maxSize;
+        this.logger = logger;
+    }
+
+    public boolean contains(String namespace, String key) {
+        return Files.isRegularFile(getEntryDir(namespace, key).resolve(DESCRIPTOR_FILE_NAME));
+    }
+
+    /**
+     * Looks up some entry, marking it as being used.
+     *
+     * @param namespace kind of the cached output, like "jar"
+     * @param key
+     * @return the cached file or folder, or null when not existing
+     */
+    public Path find(String namespace, String key) {
+        if( !contains(namespace, key) ){
+            return null;
+        }
+        Path entryDir = getEntryDir(namespace, key);
+        touch(entryDir);
+        return entryDir.resolve(CONTENT_NAME);
+    }
+
+    /**
+     * Stores a copy of the file or folder, when not being cached already. Removes the oldest entries afterwards, when
+     * the maximum size was exceeded.
+     *
+     * @param namespace kind of the cached output, like "jar"
+     * @param key
+     * @param source
+     */
+    public void publish(String namespace, String key, Path source) {
+        Path entryDir = getEntryDir(namespace, key);
+        if( contains(namespace, key) ){
+            touch(entryDir);
+            return;
+        }
+        Path temporaryEntryDir = entryDir.resolveSibling(TEMPORARY_PREFIX + key + "-" + UUID.randomUUID());
+        try{
+            Files.createDirectories(temporaryEntryDir);
+            long size = FileTools.copyTreeExactly(source, temporaryEntryDir.resolve(CONTENT_NAME));
+            Properties descriptor = new Properties();
+            descriptor.setProperty(SIZE_PROPERTY, String.valueOf(size));
+            try(OutputStream descriptorStream = Files.newOutputStream(temporaryEntryDir.resolve(DESCRIPTOR_FILE_NAME))){
+                descriptor.store(descriptorStream, "shared cache entry of javafx-maven-plugin, do not edit");
+            }
+            Files.createFile(temporaryEntryDir.resolve(LAST_ACCESS_FILE_NAME));
+            try{
+                Files.move(temporaryEntryDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug(String.format("Published %s bytes to shared cache: %s", size, entryDir));
+            } catch(IOException ex){
+                if( !contains(namespace, key) ){
+                    throw ex;
+                }
+                // already published by some other build running at the same time
+            }
+        } catch(IOException ex){
+            logger.warn(String.format("Couldn't publish to shared cache %s", rootDir.getAbsolutePath()), ex);
+        } finally{
+            deleteQuietly(temporaryEntryDir);
+        }
+        evict();
+    }
+
+    /**
+     * Removes entries having the oldest access-timestamps until the size of all entries is below the maximum size.
+     * Left-overs of aborted builds get removed too.
+     */
+    public void evict() {
+        if( maxSize <= 0 || !rootDir.isDirectory() ){
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<CachedEntry> cachedEntries = new ArrayList<>();
+        try(DirectoryStream<Path> namespaceDirs = Files.newDirectoryStream(rootDir.toPath(), Files::isDirectory)){
+            for( Path namespaceDir : namespaceDirs ){
+                try(DirectoryStream<Path> entryDirs = Files.newDirectoryStream(namespaceDir, Files::isDirectory)){
+                    for( Path entryDir : entryDirs ){
+                        String entryName = entryDir.getFileName().toString();
+                        if( entryName.startsWith(TEMPORARY_PREFIX) || entryName.startsWith(TRASH_PREFIX) ){
+                            if( now - Files.getLastModifiedTime(entryDir).toMillis() > EVICTION_GRACE_PERIOD ){
+                                deleteQuietly(entryDir);
+                            }
+                            continue;
+                        }
+                        readEntry(entryDir).ifPresent(cachedEntries::add);
+                    }
+                }
+            }
+        } catch(IOException ex){
+            logger.warn(String.format("Couldn't check size of shared cache %s", rootDir.getAbsolutePath()), ex);
+            return;
+        }
+
+        long totalSize = cachedEntries.stream().mapToLong(cachedEntry -> cachedEntry.size).sum();
+        if( totalSize <= maxSize ){
+            return;
+        }
+        cachedEntries.sort(Comparator.comparingLong(cachedEntry -> cachedEntry.lastAccess));
+        for( CachedEntry cachedEntry : cachedEntries ){
+            if( totalSize <= maxSize || now - cachedEntry.lastAccess < EVICTION_GRACE_PERIOD ){
+                break;
+            }
+            // moving it away first makes the entry disappear at once, and only one build is removing it
+            Path trashDir = cachedEntry.entryDir.resolveSibling(TRASH_PREFIX + cachedEntry.entryDir.getFileName() + "-" + UUID.randomUUID());
+            try{
+                Files.move(cachedEntry.entryDir, trashDir, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug(String.format("Removing %s bytes from shared cache: %s", cachedEntry.size, cachedEntry.entryDir));
+                deleteQuietly(trashDir);
+            } catch(IOException ex){
+                // already removed by some other build running at the same time
+            }
+            totalSize -= cachedEntry.size;
+        }
+    }
+
+    private Path getEntryDir(String namespace, String key) {
+        return new File(new File(rootDir, namespace), key).toPath();
+    }
+
+    private Optional<CachedEntry> readEntry(Path entryDir) throws IOException {
+        Path descriptorFile = entryDir.resolve(DESCRIPTOR_FILE_NAME);
+        Path lastAccessFile = entryDir.resolve(LAST_ACCESS_FILE_NAME);
+        if( !Files.isRegularFile(descriptorFile) ){
+            return Optional.empty();
+        }
+        Properties descriptor = new Properties();
+        try(InputStream descriptorStream = Files.newInputStream(descriptorFile)){
+            descriptor.load(descriptorStream);
+        }
+        long lastAccess = Files.getLastModifiedTime(Files.exists(lastAccessFile) ? lastAccessFile : descriptorFile).toMillis();
+        try{
+            return Optional.of(new CachedEntry(entryDir, Long.parseLong(descriptor.getProperty(SIZE_PROPERTY, "0")), lastAccess));
+        } catch(NumberFormatException ex){
+            return Optional.of(new CachedEntry(entryDir, 0, lastAccess));
+        }
+    }
+
+    private void touch(Path entryDir) {
+        Path lastAccessFile = entryDir.resolve(LAST_ACCESS_FILE_NAME);
+        try{
+            if( !Files.exists(lastAccessFile) ){
+                Files.createFile(lastAccessFile);
+            }
+            Files.setLastModifiedTime(lastAccessFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch(IOException ex){
+            logger.debug("Couldn't update access-timestamp of shared cache entry " + entryDir, ex);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try{
+            FileTools.deleteRecursive(path);
+        } catch(IOException ex){
+            logger.debug("Couldn't remove folder of shared cache " + path, ex);
+        }
+    }
+
+    private static class CachedEntry {
+
+        private final Path entryDir;
+        private final long size;
+        private final long lastAccess;
+
+        CachedEntry(Path entryDir, long size, long lastAccess) {
+            this.entryDir = entryDir;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.zip.Deflater;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Removes all classes from the JavaFX JAR and its dependencies inside the 'app' output directory, which are not
+ * reachable from the main class, the main classes of all secondary launchers, the pre-loader or any class matching
+ * the keep rules. This makes the application smaller and reduces the amount of classes the JVM has to look through
+ * while starting up.
+ * <p>
+ * Classes being loaded by reflection only can not be detected in all cases (e.g. when the classname is assembled at
+ * runtime), these have to be added to the keep rules. Other resources than classes are never removed.
+ * <p>
+ * All shrunk dependencies are recorded inside 'jfxStateDir', so the next call of build-jar places the original ones
+ * inside the lib-folder again, even when not calling 'mvn clean' before.
+ *
+ * @goal shrink-app
+ * @phase package
+ */
+public class ShrinkMojo extends AbstractJfxToolsMojo {
+
+    /**
+     * Name of the file inside 'jfxStateDir' listing all shrunk dependencies, relative to 'jfxAppOutputDir'.
+     */
+    public static final String SHRUNK_LIBRARIES_FILE_NAME = "shrunk-libraries.list";
+
+    /**
+     * Classes which never get removed, even when not being reachable. These are patterns of classnames, where
+     * <code>*</code> matches any part of a classname (not including dots) and <code>**</code> matches any part
+     * including dots, e.g. <code>com.example.plugins.**</code>.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.shrinkKeepClasses"
+     */
+    protected List<String> shrinkKeepClasses;
+
+    /**
+     * Set this to "false" for only removing classes of the JavaFX JAR, keeping all dependencies as they are.
+     *
+     * @since 8.9.0
+     *
+     * @parameter property="jfx.shrinkLibraries" default-value="true"
+     */
+    protected boolean shrinkLibraries = true;
+
+    /**
+     * The main classes of these launchers are used as roots too.
+     *
+     * @parameter property="jfx.secondaryLaunchers"
+     */
+    protected List<NativeLauncher> secondaryLaunchers;
+
+    /**
+     * @parameter property="jfx.preLoader"
+     */
+    protected String preLoader;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if( skip ){
+            getLog().info("Skipping execution of ShrinkMojo MOJO.");
+            return;
+        }
+
+        File jfxMainAppJarFile = new File(jfxAppOutputDir, jfxMainAppJarName);
+        if( !jfxMainAppJarFile.isFile() ){
+            throw new MojoExecutionException("Could not shrink application, because the JavaFX JAR does not exist. Please make sure to create it first.");
+        }
+
+        ClassShrinker shrinker = new ClassShrinker(getLog());
+        Optional.ofNullable(mainClass).ifPresent(shrinker::addRoot);
+        Optional.ofNullable(preLoader).ifPresent(shrinker::addRoot);
+        Optional.ofNullable(secondaryLaunchers).ifPresent(launchers -> {
+            launchers.stream().map(NativeLauncher::getMainClass).filter(launcherMainClass -> launcherMainClass != null).forEach(shrinker::addRoot);
+        });
+        Optional.ofNullable(shrinkKeepClasses).ifPresent(keepClasses -> keepClasses.forEach(shrinker::addKeepPattern));
+
+        try{
+            shrinker.addJar(jfxMainAppJarFile, true);
+            List<File> libraryJarFiles = getLibraryJarFiles(jfxMainAppJarFile);
+            for( File libraryJarFile : libraryJarFiles ){
+                shrinker.addJar(libraryJarFile, shrinkLibraries);
+            }
+            if( shrinkLibraries ){
+                // recorded before changing them, so even partly shrunk dependencies get replaced by the next build
+                recordShrunkLibraries(libraryJarFiles);
+            }
+            int removedClasses = shrinker.shrink(Deflater.DEFAULT_COMPRESSION);
+            getLog().info(String.format("Removed %s unreachable classes", removedClasses));
+        } catch(IOException ex){
+            throw new MojoExecutionException("There was an exception while shrinking application.", ex);
+        }
+    }
+
+    private void recordShrunkLibraries(List<File> libraryJarFiles) throws IOException {
+        File recordFile = new File(jfxStateDir, SHRUNK_LIBRARIES_FILE_NAME);
+        Set<String> shrunkLibraries = new TreeSet<>();
+        if( recordFile.isFile() ){
+            shrunkLibraries.addAll(Files.readAllLines(recordFile.toPath(), StandardCharsets.UTF_8));
+        }
+        Path appOutputPath = jfxAppOutputDir.getAbsoluteFile().toPath();
+        libraryJarFiles.stream()
+                .map(libraryJarFile -> appOutputPath.relativize(libraryJarFile.getAbsoluteFile().toPath()).toString().replace('\\', '/'))
+                .forEach(shrunkLibraries::add);
+        Files.createDirectories(jfxStateDir.toPath());
+        Files.write(recordFile.toPath(), shrunkLibraries, StandardCharsets.UTF_8);
+    }
+
+    private List<File> getLibraryJarFiles(File jfxMainAppJarFile) throws IOException {
+        List<File> libraryJarFiles = new ArrayList<>();
+        Optional.ofNullable(StreamingJarWriter.readManifest(jfxMainAppJarFile))
+                .map(manifest -> manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH))
+                .ifPresent(manifestClasspath -> {
+                    Arrays.stream(manifestClasspath.trim().split("\\s+"))
+                            .filter(element -> !element.isEmpty())
+                            .map(element -> new File(jfxAppOutputDir, element))
+                            .filter(File::isFile)
+                            .forEach(libraryJarFiles::add);
+                });
+        return libraryJarFiles;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Creates the JavaFX JAR without using the JavaFX packager, by streaming all files from the given folders directly
+ * into the jar-file. This makes it possible to control the compression level and to store already compressed
+ * resources (like images or archives) without compressing them a second time.
+ * <p>
+ * When updating some existing jar-file, all entries are copied without inflating and compressing them again.
+ */
+public class StreamingJarWriter {
+
+    public static final String MANIFEST_NAME = JarFile.MANIFEST_NAME;
+
+    private static final Set<String> ALREADY_COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "png", "jpg", "jpeg", "gif",
+            "zip", "jar", "gz", "tgz", "bz2", "xz", "7z",
+            "mp3", "mp4", "m4a", "aac", "ogg", "flv", "webm",
+            "woff", "woff2"
+    ));
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int compressionLevel;
+
+    public StreamingJarWriter(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public static boolean isValidCompressionLevel(int compressionLevel) {
+        return compressionLevel == Deflater.DEFAULT_COMPRESSION || (compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION);
+    }
+
+    /**
+     * Creates the manifest like the JavaFX packager does, having all entries required for launching JavaFX
+     * applications.
+     *
+     * @param baseManifest existing manifest to extend, might be null
+     * @param mainClass
+     * @param preLoader might be null
+     * @param classpath might be null
+     * @param manifestAttributes custom entries, might be null
+     * @return the manifest for the JavaFX JAR
+     */
+    public static Manifest createManifest(Manifest baseManifest, String mainClass, String preLoader, String classpath, Map<String, String> manifestAttributes) {
+        Manifest manifest = baseManifest == null ? new Manifest() : new Manifest(baseManifest);
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Created-By", "JavaFX Maven Plugin");
+        Optional.ofNullable(mainClass).ifPresent(applicationClass -> {
+            attributes.put(Attributes.Name.MAIN_CLASS, applicationClass);
+            attributes.putValue("JavaFX-Application-Class", applicationClass);
+        });
+        Optional.ofNullable(preLoader).filter(preLoaderClass -> !preLoaderClass.trim().isEmpty()).ifPresent(preLoaderClass -> {
+            attributes.putValue("JavaFX-Preloader-Class", preLoaderClass);
+        });
+        Optional.ofNullable(classpath).map(String::trim).filter(manifestClasspath -> !manifestClasspath.isEmpty()).ifPresent(manifestClasspath -> {
+            attributes.putValue("JavaFX-Class-Path", manifestClasspath);
+            attributes.put(Attributes.Name.CLASS_PATH, manifestClasspath);
+        });
+        Optional.ofNullable(manifestAttributes).ifPresent(customAttributes -> {
+            customAttributes.forEach(attributes::putValue);
+        });
+        return manifest;
+    }
+
+    /**
+     * Writes all files of the source-folders into the target jar-file. When some file exists in more than one
+     * source-folder, the first one gets taken. The target file gets replaced at the end, so it is never left
+     * in some half-written state.
+     *
+     * @param targetJarFile
+     * @param manifest
+     * @param sourceFolders
+     * @throws IOException
+     */
+    public void writeJar(File targetJarFile, Manifest manifest, List<File> sourceFolders) throws IOException {
+        Path targetPath = targetJarFile.toPath().toAbsolutePath();
+        Files.createDirectories(targetPath.getParent());
+        Path temporaryJar = Files.createTempFile(targetPath.getParent(), targetJarFile.getName(), ".tmp");
+        try{
+            try(JarOutputStream jarStream = new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryJar), BUFFER_SIZE), manifest)){
+                jarStream.setLevel(compressionLevel);
+                Set<String> writtenEntries = new HashSet<>();
+                writtenEntries.add(MANIFEST_NAME);
+                for( File sourceFolder : sourceFolders ){
+                    if( sourceFolder != null && sourceFolder.isDirectory() ){
+                        writeFolder(jarStream, sourceFolder.toPath(), writtenEntries);
+                    }
+                }
+            }
+            Files.move(temporaryJar, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        } finally{
+            Files.deleteIfExists(temporaryJar);
+        }
+    }
+
+    /**
+     * Writes all entries of the source jar-file into the target jar-file, replacing only the manifest. All other
+     * entries are copied raw, which means they are neither inflated nor compressed again.
+     *
+     * @param sourceJarFile
+     * @param targetJarFile
+     * @param manifest
+     * @param additionalFolders folders containing files to add, existing entries are not replaced
+     * @throws IOException when reading or writing fails, a ZipException when the source-file is not supported
+     * for raw copying (e.g. ZIP64-files)
+     */
+    public void rewriteJar(File sourceJarFile, File targetJarFile, Manifest manifest, List<File> additionalFolders) throws IOException {
+        ByteArrayOutputStream manifestContent = new ByteArrayOutputStream();
+        manifest.write(manifestContent);
+        try(RawJarFile sourceJar = RawJarFile.open(sourceJarFile.toPath()); RawJarWriter targetJar = new RawJarWriter(targetJarFile.toPath(), compressionLevel)){
+            // manifest has to be the first entry, otherwise JarInputStream won't find it
+            targetJar.addEntry(MANIFEST_NAME, manifestContent.toByteArray(), System.currentTimeMillis());
+            for( RawJarFile.Entry entry : sourceJar.getEntries() ){
+                if( !MANIFEST_NAME.equalsIgnoreCase(entry.getName()) ){
+                    targetJar.copyEntry(sourceJar, entry);
+                }
+            }
+            for( File additionalFolder : additionalFolders ){
+                if( additionalFolder != null && additionalFolder.isDirectory() ){
+                    addFolder(targetJar, additionalFolder.toPath());
+                }
+            }
+            targetJar.finish();
+        }
+    }
+
+    /**
+     * @param jarFile
+     * @return the manifest of the jar-file, or null when not having any
+     * @throws IOException
+     */
+    public static Manifest readManifest(File jarFile) throws IOException {
+        try(JarFile jar = new JarFile(jarFile)){
+            return jar.getManifest();
+        }
+    }
+
+    private static void addFolder(RawJarWriter targetJar, Path sourceFolder) throws IOException {
+        List<Path> sourceFiles;
+        try(Stream<Path> walkstream = Files.walk(sourceFolder)){
+            sourceFiles = walkstream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for( Path sourceFile : sourceFiles ){
+            String entryName = sourceFolder.relativize(sourceFile).toString().replace("\\", "/");
+            targetJar.addEntry(entryName, Files.readAllBytes(sourceFile), Files.getLastModifiedTime(sourceFile).toMillis());
+        }
+    }
+
+    private void writeFolder(JarOutputStream jarStream, Path sourceFolder, Set<String> writtenEntries) throws IOException {
+        List<Path> sourceFiles;
+        try(Stream<Path> walkstream = Files.walk(sourceFolder)){
+            sourceFiles = walkstream.filter(path -> !path.equals(sourceFolder)).collect(Collectors.toCollection(ArrayList::new));
+        }
+        // having a fixed order makes the result reproducible
+        Collections.sort(sourceFiles);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for( Path sourceFile : sourceFiles ){
+            String entryName = sourceFolder.relativize(sourceFile).toString().replace("\\", "/");
+            boolean isDirectory = Files.isDirectory(sourceFile);
+            if( isDirectory ){
+                entryName = entryName + "/";
+            }
+            if( !writtenEntries.add(entryName) ){
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(entryName);
+            entry.setTime(Files.getLastModifiedTime(sourceFile).toMillis());
+            if( isDirectory ){
+                jarStream.putNextEntry(entry);
+                jarStream.closeEntry();
+                continue;
+            }
+            if( isAlreadyCompressed(entryName) ){
+                // stored entries require size and checksum before writing
+                long size = Files.size(sourceFile);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(calculateCrc(sourceFile, buffer));
+            }
+            jarStream.putNextEntry(entry);
+            copyContent(sourceFile, jarStream, buffer);
+            jarStream.closeEntry();
+        }
+    }
+
+    public static boolean isAlreadyCompressed(String entryName) {
+        int extensionIndex = entryName.lastIndexOf('.');
+        if( extensionIndex < 0 || extensionIndex < entryName.lastIndexOf('/') ){
+            return false;
+        }
+        return ALREADY_COMPRESSED_EXTENSIONS.contains(entryName.substring(extensionIndex + 1).toLowerCase());
+    }
+
+    private static long calculateCrc(Path sourceFile, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try(InputStream sourceStream = Files.newInputStream(sourceFile)){
+            int read;
+            while( (read = sourceStream.read(buffer)) != -1 ){
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void copyContent(Path sourceFile, OutputStream targetStream, byte[] buffer) throws IOException {
+        try(InputStream sourceStream = Files.newInputStream(sourceFile)){
+            int read;
+            while( (read = sourceStream.read(buffer)) != -1 ){
+                targetStream.write(buffer, 0, read);
+            }
+        }
+    }
+}
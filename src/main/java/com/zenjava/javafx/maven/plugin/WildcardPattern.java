@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.util.regex.Pattern;
+
+/**
+ * Simple wildcard pattern, like used for Ant-style paths or package names:
+ * <ul>
+ * <li><code>**</code> matches everything, including separators</li>
+ * <li><code>*</code> matches everything except separators</li>
+ * <li><code>?</code> matches exactly one character except separators</li>
+ * </ul>
+ * For example, using '.' as separator, <code>com.example.*</code> matches all classes of the package "com.example",
+ * and <code>com.example.**</code> matches all classes of that package and all its sub-packages.
+ */
+public class WildcardPattern {
+
+    private final String pattern;
+    private final Pattern regex;
+
+    public WildcardPattern(String pattern, char separator) {
+        this.pattern = pattern;
+        this.regex = Pattern.compile(toRegex(pattern, separator));
+    }
+
+    public boolean matches(String value) {
+        return regex.matcher(value).matches();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private static String toRegex(String pattern, char separator) {
+        String anythingButSeparator = "[^" + Pattern.quote(String.valueOf(separator)) + "]";
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for( int i = 0; i < pattern.length(); i++ ){
+            char c = pattern.charAt(i);
+            if( c != '*' && c != '?' ){
+                literal.append(c);
+                continue;
+            }
+            if( literal.length() > 0 ){
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if( c == '?' ){
+                regex.append(anythingButSeparator);
+            } else if( i + 1 < pattern.length() && pattern.charAt(i + 1) == '*' ){
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append(anythingButSeparator).append("*");
+            }
+        }
+        if( literal.length() > 0 ){
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class JarEntryOrderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parsesJava8VerboseClassOutput() throws IOException {
+        JarEntryOrder order = JarEntryOrder.fromTrace(writeTrace(
+                "[Opened /usr/lib/jvm/java-8/jre/lib/rt.jar]",
+                "[Loaded java.lang.Object from /usr/lib/jvm/java-8/jre/lib/rt.jar]",
+                "[Loaded com.example.Main from file:/app/app.jar]",
+                "[Loaded com.example.Main$Inner from file:/app/app.jar]"
+        ));
+        assertEquals(Arrays.asList("java/lang/Object.class", "com/example/Main.class", "com/example/Main$Inner.class"), new ArrayList<>(order.getEntryNames()));
+    }
+
+    @Test
+    public void parsesUnifiedLoggingOutput() throws IOException {
+        JarEntryOrder order = JarEntryOrder.fromTrace(writeTrace(
+                "[0.010s][info][class,load] java.lang.Object source: shared objects file",
+                "[0.123s][info][class,load] com.example.Main source: file:/app/app.jar",
+                "[2018-01-01T10:00:00.000+0000][0.130s][info][class,load] com.example.Other source: file:/app/app.jar",
+                "[0.140s][info][class,init] com.example.Ignored"
+        ));
+        assertEquals(Arrays.asList("java/lang/Object.class", "com/example/Main.class", "com/example/Other.class"), new ArrayList<>(order.getEntryNames()));
+    }
+
+    @Test
+    public void parsesClassListSkippingHiddenClasses() throws IOException {
+        JarEntryOrder order = JarEntryOrder.fromTrace(writeTrace(
+                "# NOTE: Do not modify this file.",
+                "@lambda-proxy com/example/Main run ()V",
+                "java/lang/Object id: 0",
+                "com/example/Main",
+                "com/example/Main$$Lambda$1/0x0000000800066840",
+                "",
+                "com/example/Main"
+        ));
+        assertEquals(Arrays.asList("java/lang/Object.class", "com/example/Main.class"), new ArrayList<>(order.getEntryNames()));
+    }
+
+    @Test
+    public void reordersJarEntries() throws IOException {
+        File jarFile = new File(temporaryFolder.getRoot(), "app.jar");
+        try(RawJarWriter writer = new RawJarWriter(jarFile.toPath(), Deflater.DEFAULT_COMPRESSION)){
+            writer.addEntry("com/example/A.class", new byte[]{1}, 0);
+            writer.addEntry("com/example/B.class", new byte[]{2}, 0);
+            writer.addEntry("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n".getBytes(StandardCharsets.UTF_8), 0);
+            writer.addEntry("com/example/C.class", new byte[]{3}, 0);
+            writer.finish();
+        }
+
+        JarEntryOrder order = JarEntryOrder.fromTrace(writeTrace(
+                "com/example/C",
+                "com/example/Missing",
+                "com/example/A"
+        ));
+        assertEquals(2, order.applyTo(jarFile, Deflater.DEFAULT_COMPRESSION));
+
+        List<String> entryNames = new ArrayList<>();
+        try(ZipFile zipFile = new ZipFile(jarFile)){
+            Collections.list(zipFile.entries()).forEach(entry -> entryNames.add(entry.getName()));
+        }
+        assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "com/example/C.class", "com/example/A.class", "com/example/B.class"), entryNames);
+    }
+
+    private File writeTrace(String... lines) throws IOException {
+        File traceFile = temporaryFolder.newFile("trace.txt");
+        Files.write(traceFile.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return traceFile;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2012 Daniel Zwolenski.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zenjava.javafx.maven.plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RawJarWriterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final byte[] CLASS_CONTENT = repeat("some class content ", 100);
+    private static final byte[] IMAGE_CONTENT = repeat("some image content ", 100);
+
+    @Test
+    public void addedEntriesAreReadableByZipFile() throws IOException {
+        File jarFile = new File(temporaryFolder.getRoot(), "added.jar");
+        try(RawJarWriter writer = new RawJarWriter(jarFile.toPath(), Deflater.DEFAULT_COMPRESSION)){
+            assertTrue(writer.addEntry("META-INF/", new byte[0], 0));
+            assertTrue(writer.addEntry("com/example/Some.class", CLASS_CONTENT, System.currentTimeMillis()));
+            assertTrue(writer.addEntry("images/some.png", IMAGE_CONTENT, System.currentTimeMillis()));
+            assertFalse("duplicate entries must not be written", writer.addEntry("com/example/Some.class", new byte[1], 0));
+            writer.finish();
+        }
+
+        try(ZipFile zipFile = new ZipFile(jarFile)){
+            assertEquals(3, zipFile.size());
+            ZipEntry classEntry = zipFile.getEntry("com/example/Some.class");
+            assertEquals(ZipEntry.DEFLATED, classEntry.getMethod());
+            assertArrayEquals(CLASS_CONTENT, readEntry(zipFile, classEntry));
+            ZipEntry imageEntry = zipFile.getEntry("images/some.png");
+            assertEquals("already compressed content has to be stored", ZipEntry.STORED, imageEntry.getMethod());
+            assertArrayEquals(IMAGE_CONTENT, readEntry(zipFile, imageEntry));
+        }
+    }
+
+    @Test
+    public void copiedEntriesAreUnchanged() throws IOException {
+        File sourceJarFile = new File(temporaryFolder.getRoot(), "source.jar");
+        try(RawJarWriter writer = new RawJarWriter(sourceJarFile.toPath(), Deflater.BEST_COMPRESSION)){
+            writer.addEntry("com/example/Some.class", CLASS_CONTENT, System.currentTimeMillis());
+            writer.addEntry("images/some.png", IMAGE_CONTENT, System.currentTimeMillis());
+            writer.finish();
+        }
+
+        File targetJarFile = new File(temporaryFolder.getRoot(), "target.jar");
+        copyAllEntries(sourceJarFile, targetJarFile);
+
+        try(ZipFile sourceZipFile = new ZipFile(sourceJarFile); ZipFile targetZipFile = new ZipFile(targetJarFile)){
+            assertEquals(sourceZipFile.size(), targetZipFile.size());
+            for( String entryName : new String[]{"com/example/Some.class", "images/some.png"} ){
+                ZipEntry sourceEntry = sourceZipFile.getEntry(entryName);
+                ZipEntry targetEntry = targetZipFile.getEntry(entryName);
+                assertNotNull(entryName, targetEntry);
+                assertEquals(sourceEntry.getMethod(), targetEntry.getMethod());
+                assertEquals(sourceEntry.getCompressedSize(), targetEntry.getCompressedSize());
+                assertEquals(sourceEntry.getCrc(), targetEntry.getCrc());
+                assertArrayEquals(readEntry(sourceZipFile, sourceEntry), readEntry(targetZipFile, targetEntry));
+            }
+        }
+    }
+
+    @Test
+    public void entriesHavingDataDescriptorsAreCopied() throws IOException {
+        // JarOutputStream writes deflated entries using data descriptors
+        File sourceJarFile = new File(temporaryFolder.getRoot(), "streamed.jar");
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        manifest.getMainAttributes().putValue("Main-Class", "com.example.Some");
+        try(JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(sourceJarFile), manifest)){
+            jarOutputStream.putNextEntry(new JarEntry("com/example/Some.class"));
+            jarOutputStream.write(CLASS_CONTENT);
+            jarOutputStream.closeEntry();
+            jarOutputStream.putNextEntry(new JarEntry("com/example/Other.class"));
+            jarOutputStream.write(IMAGE_CONTENT);
+            jarOutputStream.closeEntry();
+        }
+
+        File targetJarFile = new File(temporaryFolder.getRoot(), "copied.jar");
+        copyAllEntries(sourceJarFile, targetJarFile);
+
+        List<String> entryNames = new ArrayList<>();
+        try(JarInputStream jarInputStream = new JarInputStream(new FileInputStream(targetJarFile))){
+            assertNotNull("manifest has to be found", jarInputStream.getManifest());
+            assertEquals("com.example.Some", jarInputStream.getManifest().getMainAttributes().getValue("Main-Class"));
+            JarEntry entry;
+            while( (entry = jarInputStream.getNextJarEntry()) != null ){
+                entryNames.add(entry.getName());
+                byte[] content = readFully(jarInputStream);
+                if( "com/example/Some.class".equals(entry.getName()) ){
+                    assertArrayEquals(CLASS_CONTENT, content);
+                } else {
+                    assertArrayEquals(IMAGE_CONTENT, content);
+                }
+            }
+        }
+        assertEquals(2, entryNames.size());
+    }
+
+    private static void copyAllEntries(File sourceJarFile, File targetJarFile) throws IOException {
+        try(RawJarFile source = RawJarFile.open(sourceJarFile.toPath()); RawJarWriter writer = new RawJarWriter(targetJarFile.toPath(), Deflater.DEFAULT_COMPRESSION)){
+            for( RawJarFile.Entry entry : source.getEntries() ){
+                assertTrue(writer.copyEntry(source, entry));
+                assertFalse("duplicate entries must not be written", writer.copyEntry(source, entry));
+            }
+            writer.finish();
+        }
+    }
+
+    private static byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+        try(InputStream inputStream = zipFile.getInputStream(entry)){
+            return readFully(inputStream);
+        }
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while( (read = inputStream.read(buffer)) != -1 ){
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    private static byte[] repeat(String text, int times) {
+        StringBuilder content = new StringBuilder();
+        for( int i = 0; i < times; i++ ){
+            content.append(text);
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}